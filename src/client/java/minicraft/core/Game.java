@@ -8,6 +8,7 @@ import minicraft.level.Level;
 import minicraft.level.tile.Tiles;
 import minicraft.network.Analytics;
 import minicraft.saveload.Load;
+import minicraft.saveload.Save;
 import minicraft.saveload.Version;
 import minicraft.screen.Display;
 import minicraft.screen.ResourcePackDisplay;
@@ -133,6 +134,7 @@ public class Game {
 		Initializer.run();
 
 		Logging.GAMEHANDLER.debug("Main game loop ended; Terminating application...");
+		Save.awaitBackgroundSave();
 		System.exit(0);
 	}
 }
@@ -2,6 +2,10 @@ package minicraft.core;
 
 import minicraft.core.io.FileHandler;
 import minicraft.core.io.Localization;
+import minicraft.level.ChunkManager;
+import minicraft.level.LevelGen;
+import minicraft.saveload.Load;
+import minicraft.saveload.SaveCompression;
 import minicraft.util.Logging;
 import minicraft.util.TinylogLoggingProvider;
 import org.jetbrains.annotations.Nullable;
@@ -43,6 +47,7 @@ public class Initializer extends Game {
 		@Nullable
 		String saveDir = null;
 		boolean enableHardwareAcceleration = true;
+		String invalidCompression = null; // Reported once logging is set up
 		for (int i = 0; i < args.length; i++) {
 			if (args[i].equalsIgnoreCase("--savedir") && i + 1 < args.length) {
 				i++;
@@ -63,9 +68,27 @@ public class Initializer extends Game {
 				Localization.isDebugLocaleEnabled = true;
 			} else if (args[i].equalsIgnoreCase("--debug-unloc-tracing")) {
 				Localization.unlocalizedStringTracing = true;
+			} else if (args[i].equalsIgnoreCase("--chunk-budget") && i + 1 < args.length) {
+				i++;
+				ChunkManager.defaultResidentBudget = Integer.parseInt(args[i]);
+			} else if (args[i].equalsIgnoreCase("--load-threads") && i + 1 < args.length) {
+				i++;
+				Load.loadThreads = Integer.parseInt(args[i]);
+			} else if (args[i].equalsIgnoreCase("--world-threads") && i + 1 < args.length) {
+				i++;
+				LevelGen.worldThreads = Integer.parseInt(args[i]);
+			} else if (args[i].equalsIgnoreCase("--save-compression") && i + 1 < args.length) {
+				i++;
+				try {
+					SaveCompression.worldSaves = SaveCompression.parse(args[i]);
+				} catch (IllegalArgumentException e) {
+					invalidCompression = args[i];
+				}
 			}
 		}
 		((TinylogLoggingProvider) ProviderRegistry.getLoggingProvider()).init();
+		if (invalidCompression != null)
+			Logging.SAVELOAD.error("Unknown save compression \"{}\", saving as {} instead; the choices are {}.", invalidCompression, SaveCompression.worldSaves, SaveCompression.CHOICES);
 
 		FileHandler.determineGameDir(saveDir);
 	}
@@ -24,6 +24,7 @@ import minicraft.item.PotionType;
 import minicraft.item.ToolItem;
 import minicraft.item.ToolType;
 import minicraft.item.WateringCanItem;
+import minicraft.level.ChunkManager;
 import minicraft.level.Level;
 import minicraft.screen.LoadingDisplay;
 import minicraft.screen.Menu;
@@ -33,6 +34,7 @@ import minicraft.screen.SignDisplayMenu;
 import minicraft.screen.TutorialDisplayHandler;
 import minicraft.screen.entry.ListEntry;
 import minicraft.screen.entry.StringEntry;
+import minicraft.util.AdvancementElement;
 import minicraft.util.Logging;
 import minicraft.util.Quest;
 import minicraft.util.Quest.QuestSeries;
@@ -512,6 +514,10 @@ public class Renderer extends Game {
 
 			if (levels[currentLevel] != null) {
 				info.add("Mob Cnt: " + levels[currentLevel].mobCount + "/" + levels[currentLevel].maxMobCount);
+
+				ChunkManager chunks = levels[currentLevel].chunkManager;
+				info.add("Chunks: " + chunks.getResidentCount() + "/" + chunks.getResidentBudget() + " (" + chunks.getQueuedCount() + " queued, " + levels[currentLevel].getPendingChunkCount() + " generating)");
+				info.add("Chunk hit/miss/evict: " + chunks.getHits() + "/" + chunks.getMisses() + "/" + chunks.getEvictions());
 			}
 
 			// Displays number of chests left, if on dungeon level.
@@ -523,6 +529,8 @@ public class Renderer extends Game {
 			}
 
 
+			info.add("Triggers: " + AdvancementElement.AdvancementTrigger.getEventCount() + " events, " + AdvancementElement.AdvancementTrigger.getEvaluationCount() + " checks (" + AdvancementElement.AdvancementTrigger.getQueueDepth() + " queued)");
+
 			info.add("Hunger stam: " + player.getDebugHunger());
 			if (player.armor > 0) {
 				info.add("Armor: " + player.armor);
@@ -5,6 +5,7 @@ import minicraft.core.io.Settings;
 import minicraft.core.io.Sound;
 import minicraft.entity.furniture.Bed;
 import minicraft.entity.mob.Player;
+import minicraft.level.ChunkManager;
 import minicraft.level.Level;
 import minicraft.level.tile.Tile;
 import minicraft.level.tile.Tiles;
@@ -150,12 +151,15 @@ public class Updater extends Game {
 		if (asTick > astime) {
 			if ((boolean) Settings.get("autosave") && !gameOver && player.health > 0) {
 
-				new Save(WorldSelectDisplay.getWorldName());
+				Save.autosave(WorldSelectDisplay.getWorldName());
 			}
 
 			asTick = 0;
 		}
 
+		if (Save.pollBackgroundSave())
+			notifyAll("minicraft.notification.world_saved");
+
 		// Increment tickCount if the game is not paused
 		if (!paused) setTime(tickCount + 1);
 
@@ -214,6 +218,13 @@ public class Updater extends Game {
 					Tile.tickCount++;
 				}
 
+				// Every level is checked, since only the current one is ticked.
+				if (gameTime % ChunkManager.UNLOAD_INTERVAL == 0) {
+					for (Level value : levels) {
+						if (value != null) value.unloadChunks();
+					}
+				}
+
 				if (currentDisplay == null && input.getMappedKey("F3").isClicked()) { // Shows debug info in upper-left
 					Renderer.showDebugInfo = !Renderer.showDebugInfo;
 				}
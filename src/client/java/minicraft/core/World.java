@@ -3,8 +3,11 @@ package minicraft.core;
 import minicraft.core.io.Settings;
 import minicraft.entity.furniture.Bed;
 import minicraft.entity.mob.Player;
+import minicraft.level.ChunkManager;
 import minicraft.level.Level;
+import minicraft.level.LevelGen;
 import minicraft.network.Analytics;
+import minicraft.saveload.ChunkSpill;
 import minicraft.saveload.Load;
 import minicraft.screen.AchievementsDisplay;
 import minicraft.screen.CraftingDisplay;
@@ -138,14 +141,30 @@ public class World extends Game {
 			seed = WorldGenDisplay.getSeed().orElse(new Random().nextLong());
 			random = new Random(seed);
 
-			float loadingInc = 100f / (maxLevelDepth - minLevelDepth + 1); // The .002 is for floating point errors, in case they occur.
-			for (int i = maxLevelDepth; i >= minLevelDepth; i--) {
+			// The chunks of every level are generated together first, then the levels are put together from the top down.
+			int[] depths = new int[maxLevelDepth - minLevelDepth + 1];
+			long[] seeds = new long[depths.length];
+			for (int i = 0; i < depths.length; i++) {
+				depths[i] = maxLevelDepth - i;
+				seeds[i] = random.nextLong();
+			}
+
+			Logging.WORLD.trace("Generating terrain...");
+			LoadingDisplay.setMessage("minicraft.displays.loading.message.levels");
+			ChunkManager[] maps = LevelGen.createAndValidateMaps(worldSize, worldSize, depths, seeds);
+			LoadingDisplay.progress(50);
+
+			float loadingInc = 50f / depths.length;
+			for (int k = 0; k < depths.length; k++) {
+				int i = depths[k];
 				// i = level depth; the array starts from the top because the parent level is used as a reference, so it should be constructed first. It is expected that the highest level will have a null parent.
 
 				Logging.WORLD.trace("Generating level " + i + "...");
 
 				LoadingDisplay.setMessage(Level.getDepthString(i), false);
-				levels[lvlIdx(i)] = new Level(worldSize, worldSize, random.nextLong(), i, levels[lvlIdx(i + 1)], !WorldSelectDisplay.hasLoadedWorld());
+				levels[lvlIdx(i)] = new Level(worldSize, worldSize, seeds[k], i, levels[lvlIdx(i + 1)], maps[k]);
+				if (Logging.logLevel)
+					Logging.WORLD.debug("Level {} chunk hash: {}", i, Long.toHexString(maps[k].contentHash()));
 
 				LoadingDisplay.progress(loadingInc);
 			}
@@ -163,6 +182,12 @@ public class World extends Game {
 			SignDisplay.resetSignTexts();
 		}
 
+		// Chunks unloaded from now on are kept in the world folder until the next save.
+		for (int i = 0; i < levels.length; i++) {
+			if (levels[i] != null)
+				levels[i].chunkManager.setStore(new ChunkSpill(Game.gameDir + "/saves/" + WorldSelectDisplay.getWorldName() + "/Level" + i + "/"));
+		}
+
 		Renderer.readyToRenderGameplay = true;
 
 		Renderer.signDisplayMenu = null;
@@ -229,6 +254,7 @@ public class World extends Game {
 	 */
 	public static void onWorldExits() {
 		lastWorldExitTime = System.currentTimeMillis();
+		ChunkSpill.closeRegions();
 	}
 
 	public static long getLastWorldExitTime() {
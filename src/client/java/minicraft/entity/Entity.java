@@ -165,6 +165,7 @@ public abstract class Entity implements Tickable {
 		if (xd != 0 && moveX(xd)) stopped = false; // Becomes false if horizontal movement was successful.
 		if (yd != 0 && moveY(yd)) stopped = false; // Becomes false if vertical movement was successful.
 		if (!stopped) {
+			level.entityMoved(this); // Keeps the level's entity grid up to date.
 			int xt = x >> 4; // The x tile coordinate that the entity is standing on.
 			int yt = y >> 4; // The y tile coordinate that the entity is standing on.
 			level.getTile(xt, yt).steppedOn(level, xt, yt, this); // Calls the steppedOn() method in a tile's class. (used for tiles like sand (footprints) or lava (burning))
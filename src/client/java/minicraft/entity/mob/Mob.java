@@ -53,12 +53,12 @@ public abstract class Mob extends Entity {
 		if (isRemoved()) return;
 		noActionTime++;
 
-		if (level != null && level.getTile(x >> 4, y >> 4) == Tiles.get("lava")) // If we are trying to swim in lava
-			hurt(Tiles.get("lava"), x, y, 4); // Inflict 4 damage to ourselves, sourced from the lava Tile, with the direction as the opposite of ours.
+		if (level != null && level.getTile(x >> 4, y >> 4) == Tiles.LAVA) // If we are trying to swim in lava
+			hurt(Tiles.LAVA, x, y, 4); // Inflict 4 damage to ourselves, sourced from the lava Tile, with the direction as the opposite of ours.
 
 		if (canBurn()) {
 			if (this.burningDuration > 0) {
-				if (level.getTile(x >> 4, y >> 4) == Tiles.get("water")) this.burningDuration = 0;
+				if (level.getTile(x >> 4, y >> 4) == Tiles.WATER) this.burningDuration = 0;
 				if (this.burningDuration % 10 == 0)
 					level.add(new BurnParticle(x - 8 + (random.nextInt(8) - 4), y - 8 + (random.nextInt(8) - 4)));
 				this.burningDuration--;
@@ -215,7 +215,7 @@ public abstract class Mob extends Entity {
 	public boolean isSwimming() {
 		if (level == null) return false;
 		Tile tile = level.getTile(x >> 4, y >> 4); // Get the tile the mob is standing on (at x/16, y/16)
-		return tile == Tiles.get("water") || tile == Tiles.get("lava"); // Check if the tile is liquid, and return true if so
+		return tile == Tiles.WATER || tile == Tiles.LAVA; // Check if the tile is liquid, and return true if so
 	}
 
 	/**
@@ -227,7 +227,7 @@ public abstract class Mob extends Entity {
 	 */
 	public void hurt(Tile tile, int x, int y, int damage) { // Hurt the mob, when the source of damage is a tile
 		Direction attackDir = Direction.getDirection(dir.getDir() ^ 1); // Set attackDir to our own direction, inverted. XORing it with 1 flips the rightmost bit in the variable, this effectively adds one when even, and subtracts one when odd.
-		if (!(tile == Tiles.get("lava") && this instanceof Player && ((Player) this).potioneffects.containsKey(PotionType.Lava)))
+		if (!(tile == Tiles.LAVA && this instanceof Player && ((Player) this).potioneffects.containsKey(PotionType.Lava)))
 			doHurt(damage, tile.mayPass(level, x, y, this) ? Direction.NONE : attackDir); // Call the method that actually performs damage, and set it to no particular direction
 	}
 
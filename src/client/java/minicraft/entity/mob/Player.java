@@ -287,7 +287,7 @@ public class Player extends Mob implements ItemHolder, ClientTickable {
 		}
 
 		// Ensure chunks generated around player
-		level.loadChunksAround(x >> 4, y >> 4);
+		level.loadChunksAround(x >> 4, y >> 4, dir.getX(), dir.getY());
 
 		super.tick(); // Ticks Mob.java
 
@@ -0,0 +1,77 @@
+package minicraft.item;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+
+/**
+ * Keeps whether each recipe of a crafter can be crafted from an inventory.
+ * The inventory count of every cost item is kept by name, along with the recipes that use each item,
+ * so that after the inventory changes only the recipes using the changed items are checked again.
+ */
+public class CraftabilityIndex {
+	private final Collection<Recipe> recipes;
+	private final HashMap<String, Item> costItems = new HashMap<>(); // The cost items of all the recipes, by upper case name
+	private final HashMap<String, ArrayList<Recipe>> recipesByCost = new HashMap<>();
+	private final HashMap<String, Integer> counts = new HashMap<>(); // How many of each cost item the inventory has
+
+	public CraftabilityIndex(Collection<Recipe> recipes) {
+		this.recipes = new ArrayList<>(recipes);
+		for (Recipe recipe : this.recipes) {
+			for (String name : recipe.getCostNames()) {
+				costItems.putIfAbsent(name, recipe.getCostItem(name));
+				recipesByCost.computeIfAbsent(name, k -> new ArrayList<>()).add(recipe);
+			}
+		}
+	}
+
+	/**
+	 * Counts every cost item and checks every recipe again.
+	 */
+	public void refresh(Inventory inventory) {
+		for (String name : costItems.keySet())
+			counts.put(name, inventory.count(costItems.get(name)));
+		for (Recipe recipe : recipes)
+			recipe.checkCanCraft(counts);
+	}
+
+	/**
+	 * Counts the given items again, and checks the recipes that use any of them.
+	 * @param names The upper case names of the items that were added to or removed from the inventory.
+	 */
+	public void itemsChanged(Inventory inventory, Collection<String> names) {
+		LinkedHashSet<Recipe> affected = new LinkedHashSet<>();
+		for (String name : names) {
+			Item item = costItems.get(name);
+			if (item == null) continue; // No recipe uses it
+			int count = inventory.count(item);
+			Integer old = counts.put(name, count);
+			if (old == null || old != count) {
+				affected.addAll(recipesByCost.get(name));
+			}
+		}
+
+		for (Recipe recipe : affected)
+			recipe.checkCanCraft(counts);
+	}
+
+	/**
+	 * Updates the recipes after the given recipe was crafted, which takes its costs and gives its product.
+	 */
+	public void crafted(Inventory inventory, Recipe recipe) {
+		ArrayList<String> names = new ArrayList<>();
+		Collections.addAll(names, recipe.getCostNames());
+		names.add(recipe.getProductName());
+		itemsChanged(inventory, names);
+	}
+
+	/**
+	 * How many of a cost item the inventory had when last counted.
+	 */
+	public int getCount(String name) {
+		Integer count = counts.get(name.toUpperCase());
+		return count == null ? 0 : count;
+	}
+}
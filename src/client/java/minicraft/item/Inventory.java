@@ -5,11 +5,15 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Random;
 
 public class Inventory {
 	private final List<Item> items = new ArrayList<>(); // The list of items that is in the inventory.
+	// The same items by name, each in inventory order. Only items of the same name stack or match, so lookups only need these.
+	private final HashMap<String, ArrayList<Item>> itemsByName = new HashMap<>();
 
 	protected int maxItem = 27;
 	protected boolean unlimited = false;
@@ -28,6 +32,7 @@ public class Inventory {
 
 	public void clearInv() {
 		items.clear();
+		itemsByName.clear();
 	}
 
 	public int invSize() {
@@ -49,7 +54,35 @@ public class Inventory {
 	 * @return The removed item.
 	 */
 	public Item remove(int idx) {
-		return items.remove(idx);
+		Item item = items.remove(idx);
+		ArrayList<Item> named = itemsByName.get(item.getName());
+		for (int i = 0; i < named.size(); i++) {
+			if (named.get(i) == item) {
+				named.remove(i);
+				break;
+			}
+		}
+		if (named.isEmpty()) itemsByName.remove(item.getName());
+		return item;
+	}
+
+	private void append(Item item) {
+		items.add(item);
+		itemsByName.computeIfAbsent(item.getName(), k -> new ArrayList<>()).add(item);
+	}
+
+	/**
+	 * The items in this inventory with the given name, in inventory order; empty if there are none. The list must not be changed.
+	 */
+	private List<Item> named(String name) {
+		ArrayList<Item> named = itemsByName.get(name);
+		return named == null ? Collections.emptyList() : named;
+	}
+
+	private int indexOf(Item item) {
+		for (int i = 0; i < items.size(); i++)
+			if (items.get(i) == item) return i;
+		return -1;
 	}
 
 	/**
@@ -82,7 +115,7 @@ public class Inventory {
 
 		if (item instanceof StackableItem) { // If the item is a item...
 			StackableItem toTake = (StackableItem) item; // ...convert it into a StackableItem object.
-			for (Item value : items) {
+			for (Item value : named(toTake.getName())) {
 				if (toTake.stacksWith(value)) {
 					StackableItem stack = (StackableItem) value;
 					if (!unlimited) {
@@ -110,7 +143,7 @@ public class Inventory {
 						if (items.size() == maxItem) return toTake;
 						StackableItem adding = toTake.copy();
 						adding.count = Math.min(toTake.count, toTake.maxCount);
-						items.add(adding); // Add the item to the items list
+						append(adding); // Add the item to the items list
 						toTake.count -= adding.count;
 					}
 					return null;
@@ -118,20 +151,20 @@ public class Inventory {
 					return toTake;
 				}
 			} else {
-				items.add(toTake);
+				append(toTake);
 				return null;
 			}
 		}
 
 		if (!unlimited) {
 			if (items.size() < maxItem) {
-				items.add(item); // Add the item to the items list
+				append(item); // Add the item to the items list
 				return null;
 			} else {
 				return item;
 			}
 		} else {
-			items.add(item);
+			append(item);
 			return null;
 		}
 	}
@@ -141,16 +174,15 @@ public class Inventory {
 	 */
 	private int removeFromStack(StackableItem given, int count) {
 		int removed = 0; // To keep track of amount removed.
-		for (int i = 0; i < items.size(); i++) {
-			if (!(items.get(i) instanceof StackableItem)) continue;
-			StackableItem curItem = (StackableItem) items.get(i);
+		for (Item item : new ArrayList<>(named(given.getName()))) {
+			if (!(item instanceof StackableItem)) continue;
+			StackableItem curItem = (StackableItem) item;
 			if (!curItem.stacksWith(given)) continue; // Can't do equals, becuase that includes the stack size.
 			// equals; and current item is stackable.
 			int amountRemoving = Math.min(count - removed, curItem.count); // This is the number of items that are being removed from the stack this run-through.
 			curItem.count -= amountRemoving;
 			if (curItem.count == 0) { // Remove the item from the inventory if its stack is empty.
-				remove(i);
-				i--;
+				remove(indexOf(curItem));
 			}
 			removed += amountRemoving;
 			if (removed == count) break;
@@ -186,10 +218,9 @@ public class Inventory {
 		if (given instanceof StackableItem)
 			count -= removeFromStack((StackableItem) given, count);
 		else {
-			for (int i = 0; i < items.size(); i++) {
-				Item curItem = items.get(i);
+			for (Item curItem : new ArrayList<>(named(given.getName()))) {
 				if (curItem.equals(given)) {
-					remove(i);
+					remove(indexOf(curItem));
 					count--;
 					if (count == 0) break;
 				}
@@ -208,7 +239,7 @@ public class Inventory {
 
 		int found = 0; // Initialize counting var
 		// Assign current item
-		for (Item curItem : items) { // Loop though items in inv
+		for (Item curItem : named(given.getName())) { // Loop though the items in inv that could match
 			// If the item can be a stack...
 			if (curItem instanceof StackableItem && ((StackableItem) curItem).stacksWith(given))
 				found += ((StackableItem) curItem).count; // Add however many items are in the stack.
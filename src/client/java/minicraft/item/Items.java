@@ -5,6 +5,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Items {
 
@@ -19,9 +21,33 @@ public class Items {
 	 * If you want to access one of those items, you do it through this class, by calling get("item name"); casing does not matter.
 	 */
 	private static final ArrayList<Item> items = new ArrayList<>();
+	// The items by upper case name; where names are shared, the first item added is the one found, as when the list was searched.
+	private static final HashMap<String, Item> names = new HashMap<>();
+	// Names as they were requested, already cut into the item name and the data after "_" or ";".
+	private static final ConcurrentHashMap<String, Request> requests = new ConcurrentHashMap<>();
+	private static final int MAX_REQUESTS = 4096; // Names with counts in them can come from saves, so only so many are kept.
+
+	/**
+	 * A requested item name, worked out.
+	 */
+	private static class Request {
+		private final String name; // Upper case, without the data
+		@Nullable
+		private final Item item; // Null if no item has the name
+		private final int data;
+		private final boolean hadUnderscore;
+
+		private Request(String name, @Nullable Item item, int data, boolean hadUnderscore) {
+			this.name = name;
+			this.item = item;
+			this.data = data;
+			this.hadUnderscore = hadUnderscore;
+		}
+	}
 
 	private static void add(Item i) {
 		items.add(i);
+		names.putIfAbsent(i.getName().toUpperCase(), i);
 	}
 
 	private static void addAll(ArrayList<Item> items) {
@@ -64,8 +90,41 @@ public class Items {
 
 	@Nullable
 	public static Item get(String name, boolean allowNull) {
+		Request request = requests.get(name);
+		if (request == null) {
+			request = parse(name);
+			// Names of no item aren't kept, as they are rare, and an item could be added under one while the list is made.
+			if (request.item != null && requests.size() < MAX_REQUESTS) requests.put(name, request);
+		}
+
+		if (request.name.equals("NULL")) {
+			if (allowNull) return null;
+			else {
+				Logging.ITEMS.warn("Items.get passed argument \"null\" when null is not allowed; returning UnknownItem.");
+				return new UnknownItem("NULL");
+			}
+		}
+
+		if (request.name.equals("UNKNOWN"))
+			return new UnknownItem("BLANK");
+
+		if (request.item != null) {
+			Item i = request.item.copy();
+			if (i instanceof StackableItem)
+				((StackableItem) i).count = request.data;
+			if (i instanceof ToolItem && request.hadUnderscore)
+				((ToolItem) i).dur = request.data;
+			if (i instanceof WateringCanItem)
+				((WateringCanItem) i).content = request.data;
+			return i;
+		} else {
+			Logging.ITEMS.error("Requested invalid item with name: '{}'", request.name);
+			return new UnknownItem(request.name);
+		}
+	}
+
+	private static Request parse(String name) {
 		name = name.toUpperCase();
-		//System.out.println("fetching name: \"" + name + "\"");
 		int data = 1;
 		boolean hadUnderscore = false;
 		if (name.contains("_")) {
@@ -86,38 +145,7 @@ public class Items {
 			name = name.substring(0, name.indexOf(";"));
 		}
 
-		if (name.equalsIgnoreCase("NULL")) {
-			if (allowNull) return null;
-			else {
-				Logging.ITEMS.warn("Items.get passed argument \"null\" when null is not allowed; returning UnknownItem.");
-				return new UnknownItem("NULL");
-			}
-		}
-
-		if (name.equals("UNKNOWN"))
-			return new UnknownItem("BLANK");
-
-		Item i = null;
-		for (Item cur : items) {
-			if (cur.getName().equalsIgnoreCase(name)) {
-				i = cur;
-				break;
-			}
-		}
-
-		if (i != null) {
-			i = i.copy();
-			if (i instanceof StackableItem)
-				((StackableItem) i).count = data;
-			if (i instanceof ToolItem && hadUnderscore)
-				((ToolItem) i).dur = data;
-			if (i instanceof WateringCanItem)
-				((WateringCanItem) i).content = data;
-			return i;
-		} else {
-			Logging.ITEMS.error("Requested invalid item with name: '{}'", name);
-			return new UnknownItem(name);
-		}
+		return new Request(name, names.get(name), data, hadUnderscore);
 	}
 
 	public static Item arrowItem = get("arrow");
@@ -13,6 +13,10 @@ public class Recipe {
 	private final String product; // The result item of the recipe
 	private final int amount;
 	private boolean canCraft; // Checks if the player can craft the recipe
+	// The costs compiled to arrays the first time they are needed: the upper case item names, the items and the amounts, in the order of costs.
+	private String[] costNames;
+	private Item[] costItems;
+	private int[] costAmounts;
 
 	public Recipe(String createdItem, String... reqItems) {
 		canCraft = false;
@@ -60,15 +64,36 @@ public class Recipe {
 		return canCraft;
 	}
 
+	/**
+	 * Checks if the recipe can be crafted with the given counts of its cost items, by upper case item name.
+	 */
+	boolean checkCanCraft(Map<String, Integer> counts) {
+		canCraft = true;
+		if (!Game.isMode("minicraft.settings.mode.creative")) {
+			compileCosts();
+			for (int i = 0; i < costNames.length; i++) {
+				Integer count = counts.get(costNames[i]);
+				if (count == null || count < costAmounts[i]) {
+					canCraft = false;
+					break;
+				}
+			}
+		}
+
+		return canCraft;
+	}
+
 	/**
 	 * Checks if the player can craft the recipe
 	 */
 	private boolean getCanCraft(Player player) {
 		if (Game.isMode("minicraft.settings.mode.creative")) return true;
 
-		for (String cost : costs.keySet().toArray(new String[0])) { // Cycles through the costs list
+		compileCosts();
+		Inventory inventory = player.getInventory();
+		for (int i = 0; i < costItems.length; i++) { // Cycles through the costs list
 			/// This method ONLY WORKS if costs does not contain two elements such that inventory.count will count an item it contains as matching more than once.
-			if (player.getInventory().count(Items.get(cost)) < costs.get(cost)) {
+			if (inventory.count(costItems[i]) < costAmounts[i]) {
 				return false;
 			}
 		}
@@ -76,6 +101,44 @@ public class Recipe {
 		return true;
 	}
 
+	private void compileCosts() {
+		if (costItems != null) return;
+		String[] names = new String[costs.size()];
+		Item[] items = new Item[costs.size()];
+		int[] amounts = new int[costs.size()];
+		int i = 0;
+		for (Map.Entry<String, Integer> cost : costs.entrySet()) {
+			names[i] = cost.getKey();
+			items[i] = Items.get(cost.getKey());
+			amounts[i++] = cost.getValue();
+		}
+		costNames = names;
+		costAmounts = amounts;
+		costItems = items;
+	}
+
+	/**
+	 * The upper case names of the cost items.
+	 */
+	String[] getCostNames() {
+		compileCosts();
+		return costNames;
+	}
+
+	/**
+	 * The cost item of the given upper case name, which must be one of the cost names; it is shared, so it must not be changed.
+	 */
+	Item getCostItem(String name) {
+		compileCosts();
+		for (int i = 0; i < costNames.length; i++)
+			if (costNames[i].equals(name)) return costItems[i];
+		return null;
+	}
+
+	String getProductName() {
+		return product;
+	}
+
 	// (WAS) abstract method given to the sub-recipe classes.
 	public boolean craft(Player player) {
 		if (!getCanCraft(player)) return false;
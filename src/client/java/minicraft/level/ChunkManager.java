@@ -1,13 +1,20 @@
 package minicraft.level;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
 
 import minicraft.gfx.Point;
 import minicraft.level.tile.Tile;
 import minicraft.level.tile.Tiles;
+import minicraft.util.Logging;
+import minicraft.util.Simplex;
+import org.jetbrains.annotations.Nullable;
 
 public class ChunkManager {
 
@@ -15,98 +22,465 @@ public class ChunkManager {
 	public static final int CHUNK_STAGE_UNFINISHED_STAIRS = 3;
 	public static final int CHUNK_STAGE_DONE = 4;
 
+	private static final int CHUNK_SHIFT = Integer.numberOfTrailingZeros(CHUNK_SIZE);
+
+	public static final int UNLOAD_INTERVAL = 120; // How often, in ticks, far away chunks are considered for unloading
+	public static final int UNLOAD_RADIUS = 4; // Chunks within this many chunks of a player are never unloaded
+	public static int defaultResidentBudget = 256; // The number of chunks each level keeps in memory; set by --chunk-budget
+
 	/**
-	 * A data structure where
-	 * [x][y] input points to CHUNK_SIZE x CHUNK_SIZE list of TileDat
+	 * An open-addressing hash map where the packed (chunkX, chunkY) key
+	 * points to a CHUNK_SIZE x CHUNK_SIZE chunk of tile ids and data
 	 */
-	public Map<Integer, Map<Integer, Chunk>> chunks;
+	private final ChunkMap chunks;
+
+	// The last chunk looked up, so that runs of tile reads in the same chunk skip hashing entirely
+	private int lastChunkX, lastChunkY;
+	private Chunk lastChunk = null;
+
+	@Nullable
+	private ChunkStore store = null; // Where unloaded chunks go; chunks are never unloaded without one
+	@Nullable
+	private ChunkLoadListener loadListener = null;
+	private int residentBudget = defaultResidentBudget;
+	private int residentCount = 0;
+	private long accessClock = 0; // Bumped on every chunk switch, to order chunks by last access
+	private long lastUnloadClock = 0;
+	private int queuedCount = 0; // Chunks that may be unloaded, but weren't needed to get under budget
+	private long hits = 0, misses = 0, evictions = 0;
 
 	public ChunkManager() {
-		chunks = new HashMap<>();
+		chunks = new ChunkMap();
 	}
 
 	public Set<Point> getAllChunks() {
 		HashSet<Point> out = new HashSet<>();
-		for(int x : chunks.keySet())
-			for(int y : chunks.get(x).keySet())
-				out.add(new Point(x, y));
+		for(int i = 0; i < chunks.values.length; i++)
+			if(chunks.values[i] != null)
+				out.add(new Point(chunkX(chunks.keys[i]), chunkY(chunks.keys[i])));
 		return out;
 	}
 
 	/**
-	 * Return the chunk  in which the tileX and tileY land
+	 * Hashes the position, stage, tiles and data of every chunk in memory, in an order that doesn't depend on how they were made;
+	 * a world created twice from the same seed should give the same hash for every level.
+	 */
+	public long contentHash() {
+		long[] keys = new long[chunks.size];
+		int n = 0;
+		for(int i = 0; i < chunks.values.length; i++)
+			if(chunks.values[i] != null)
+				keys[n++] = chunks.keys[i];
+		Arrays.sort(keys, 0, n);
+
+		long hash = 1125899906842597L;
+		for(int i = 0; i < n; i++) {
+			Chunk chunk = chunks.get(keys[i]);
+			hash = 31 * hash + keys[i];
+			hash = 31 * hash + chunk.stage;
+			if(chunk.ids == null) continue;
+			for(int j = 0; j < chunk.ids.length; j++)
+				hash = 31 * hash + ((chunk.ids[j] << 16) | (chunk.data[j] & 0xFFFF));
+		}
+		return hash;
+	}
+
+	private static long key(int chunkX, int chunkY) {
+		return ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+	}
+
+	private static int chunkX(long key) {
+		return (int) (key >> 32);
+	}
+
+	private static int chunkY(long key) {
+		return (int) key;
+	}
+
+	/**
+	 * Return the chunk in which the tileX and tileY land
 	 */
 	private Chunk getChunk(int tileX, int tileY) {
-		int cX = Math.floorDiv(tileX, CHUNK_SIZE), cY = Math.floorDiv(tileY, CHUNK_SIZE);
-		// If [cX][cY] are not keys in chunks, put them there
-		if(!chunks.containsKey(cX))
-			chunks.put(cX, new HashMap<>());
-		if(!chunks.get(cX).containsKey(cY))
-			chunks.get(cX).put(cY, new Chunk());
-		return chunks.get(cX).get(cY);
+		int cX = tileX >> CHUNK_SHIFT, cY = tileY >> CHUNK_SHIFT; // Same as Math.floorDiv, since CHUNK_SIZE is a power of two
+		if(lastChunk != null && cX == lastChunkX && cY == lastChunkY) {
+			hits++;
+			return lastChunk;
+		}
+
+		// If [cX][cY] is not a key in chunks, put it there
+		long key = key(cX, cY);
+		Chunk chunk = chunks.get(key);
+		if(chunk == null) {
+			chunk = new Chunk(cX, cY);
+			chunks.put(key, chunk);
+			residentCount++;
+		} else if(chunk.ids == null)
+			reload(chunk);
+		else
+			hits++;
+
+		chunk.lastAccess = ++accessClock;
+		lastChunkX = cX;
+		lastChunkY = cY;
+		lastChunk = chunk;
+		return chunk;
 	}
 
 	/**
 	* Returns a tile. After finding the right chunk, mods x and y to the range 0-CHUNK_SIZE as to never be out of bounds
 	*/
 	public Tile getTile(int x, int y) {
-		return Tiles.get(getChunk(x, y).getTileDat(x, y).id);
+		return Tiles.get(getChunk(x, y).ids[Chunk.index(x, y)]);
 	}
 
 	/**
 	* Updates a tile. After finding the right chunk, mods x and y to the range 0-CHUNK_SIZE as to never be out of bounds
 	*/
 	public void setTile(int x, int y, Tile t, int dataVal) {
-		TileDat dat = getChunk(x, y).getTileDat(x, y);
-		dat.id = t.id;
-		dat.data = (short) dataVal;
+		Chunk chunk = getChunk(x, y);
+		int index = Chunk.index(x, y);
+		if (chunk.ids[index] == t.id && chunk.data[index] == (short) dataVal) return;
+		chunk.ids[index] = t.id;
+		chunk.data[index] = (short) dataVal;
+		chunk.dirty = true;
 	}
 
 	public int getData(int x, int y) {
-		return getChunk(x, y).getTileDat(x, y).data;
+		return getChunk(x, y).data[Chunk.index(x, y)];
 	}
 
 	public void setData(int x, int y, int val) {
-		getChunk(x, y).getTileDat(x, y).data = (short) val;
+		Chunk chunk = getChunk(x, y);
+		int index = Chunk.index(x, y);
+		if (chunk.data[index] == (short) val) return;
+		chunk.data[index] = (short) val;
+		chunk.dirty = true;
+	}
+
+	/**
+	 * Returns false if the chunk was never created, or has been unloaded to the chunk store.
+	 */
+	public boolean isChunkResident(int chunkX, int chunkY) {
+		Chunk chunk = chunks.get(key(chunkX, chunkY));
+		return chunk != null && chunk.ids != null;
 	}
 
 	public int getChunkStage(int chunkX, int chunkY) {
-		// If [cX][cY] are not keys in chunks, stage must be 0
-		if(!chunks.containsKey(chunkX) || !chunks.get(chunkX).containsKey(chunkY))
-			return 0;
-		return chunks.get(chunkX).get(chunkY).stage;
+		// If [chunkX][chunkY] is not a key in chunks, stage must be 0
+		Chunk chunk = chunks.get(key(chunkX, chunkY));
+		return chunk == null ? 0 : chunk.stage;
 	}
 
 	public void setChunkStage(int chunkX, int chunkY, int stage) {
-		// If [chunkX][chunkY] are not keys in chunks, put them there
-		if(!chunks.containsKey(chunkX))
-			chunks.put(chunkX, new HashMap<>());
-		if(!chunks.get(chunkX).containsKey(chunkY))
-			chunks.get(chunkX).put(chunkY, new Chunk());
-		chunks.get(chunkX).get(chunkY).stage = (short)stage;
+		Chunk chunk = getChunk(chunkX * CHUNK_SIZE, chunkY * CHUNK_SIZE);
+		if (chunk.stage != stage) chunk.dirty = true;
+		chunk.stage = (short)stage;
+	}
+
+	/**
+	 * Fills a chunk with the given tile ids and data, indexed x + y * CHUNK_SIZE, which the chunk then keeps.
+	 */
+	public void setChunkTiles(int chunkX, int chunkY, short[] ids, short[] data) {
+		Chunk chunk = getChunk(chunkX * CHUNK_SIZE, chunkY * CHUNK_SIZE);
+		chunk.ids = ids;
+		chunk.data = data;
+		chunk.treeTypes = null;
+		chunk.dirty = true;
+	}
+
+	/**
+	 * Copies the tile ids and data of a resident chunk, indexed x + y * CHUNK_SIZE, so that they can be saved from another thread.
+	 */
+	public void copyChunk(int chunkX, int chunkY, short[] ids, short[] data) {
+		Chunk chunk = getChunk(chunkX * CHUNK_SIZE, chunkY * CHUNK_SIZE);
+		System.arraycopy(chunk.ids, 0, ids, 0, ids.length);
+		System.arraycopy(chunk.data, 0, data, 0, data.length);
+	}
+
+	/**
+	 * Returns true if the chunk changed since it was last saved or loaded, or was never saved at all.
+	 */
+	public boolean isChunkDirty(int chunkX, int chunkY) {
+		Chunk chunk = chunks.get(key(chunkX, chunkY));
+		return chunk == null || chunk.dirty;
+	}
+
+	/**
+	 * Adds a finished chunk that is in the world save, without reading it.
+	 * Its tiles are read from the chunk store the first time they are needed, and the load listener is told then.
+	 */
+	public void addSavedChunk(int chunkX, int chunkY) {
+		Chunk chunk = new Chunk(chunkX, chunkY, null, null); // Not resident until read
+		chunk.stage = CHUNK_STAGE_DONE;
+		chunk.dirty = false;
+		chunk.unread = true;
+		chunks.put(key(chunkX, chunkY), chunk);
+	}
+
+	/**
+	 * Returns true if the chunk was added with addSavedChunk, and hasn't been read yet.
+	 */
+	public boolean isChunkUnread(int chunkX, int chunkY) {
+		Chunk chunk = chunks.get(key(chunkX, chunkY));
+		return chunk != null && chunk.unread;
+	}
+
+	/**
+	 * Reads a chunk in now if it isn't resident, rather than on the first access to it. Chunks that don't exist are left alone.
+	 */
+	public void ensureResident(int chunkX, int chunkY) {
+		if (chunks.get(key(chunkX, chunkY)) != null)
+			getChunk(chunkX * CHUNK_SIZE, chunkY * CHUNK_SIZE);
+	}
+
+	/**
+	 * Marks a chunk as matching what is in the world save, after it was written there or read from there.
+	 */
+	public void markChunkClean(int chunkX, int chunkY) {
+		Chunk chunk = chunks.get(key(chunkX, chunkY));
+		if (chunk != null) chunk.dirty = false;
+	}
+
+	/**
+	 * Returns the tree type of a tile, as an index into TreeTile.TreeType.values().
+	 * The tree types of a whole chunk are worked out the first time one of them is needed, and kept with the chunk.
+	 */
+	public int getTreeType(int x, int y, Simplex treeNoise) {
+		Chunk chunk = getChunk(x, y);
+		if(chunk.treeTypes == null)
+			chunk.treeTypes = LevelGen.generateTreeTypes(treeNoise, chunk.x, chunk.y);
+		return chunk.treeTypes[Chunk.index(x, y)];
+	}
+
+	void setTreeTypes(int chunkX, int chunkY, byte[] treeTypes) {
+		getChunk(chunkX * CHUNK_SIZE, chunkY * CHUNK_SIZE).treeTypes = treeTypes;
 	}
 
+	/**
+	 * Takes over a chunk's tiles from another ChunkManager, such as one a chunk was generated into off the game thread.
+	 * Whatever this manager had at that position is replaced; the stage is left alone.
+	 */
+	void installChunk(ChunkManager from, int chunkX, int chunkY) {
+		Chunk source = from.chunks.get(key(chunkX, chunkY));
+		if(source == null || source.ids == null) return;
+
+		Chunk chunk = getChunk(chunkX * CHUNK_SIZE, chunkY * CHUNK_SIZE);
+		chunk.ids = source.ids;
+		chunk.data = source.data;
+		chunk.treeTypes = source.treeTypes;
+		chunk.dirty = true;
+	}
+
+	public void setStore(@Nullable ChunkStore store) {
+		this.store = store;
+	}
+
+	public void setLoadListener(@Nullable ChunkLoadListener listener) {
+		loadListener = listener;
+	}
+
+	public void setResidentBudget(int budget) {
+		residentBudget = budget;
+	}
+
+	public int getResidentBudget() { return residentBudget; }
+	public int getResidentCount() { return residentCount; }
+	public int getQueuedCount() { return queuedCount; }
+	public long getHits() { return hits; }
+	public long getMisses() { return misses; }
+	public long getEvictions() { return evictions; }
+
+	/**
+	 * Reads an unloaded chunk back from the chunk store.
+	 * The first time a chunk added with addSavedChunk is read, the load listener is told once it is resident.
+	 */
+	private void reload(Chunk chunk) {
+		short[] ids = new short[CHUNK_SIZE * CHUNK_SIZE];
+		short[] data = new short[CHUNK_SIZE * CHUNK_SIZE];
+		try {
+			if (store == null) throw new IOException("No chunk store to read from.");
+			store.read(chunk.x, chunk.y, ids, data);
+		} catch (IOException e) {
+			Logging.WORLD.error(e, "Unable to read back unloaded chunk ({}, {}); it will be generated again.", chunk.x, chunk.y);
+			chunk.stage = 0;
+		}
+
+		chunk.ids = ids;
+		chunk.data = data;
+		residentCount++;
+		misses++;
+
+		if (chunk.unread) {
+			chunk.unread = false;
+			if (loadListener != null && chunk.stage != 0) {
+				// The listener may look at other chunks, so this one is made the last chunk first.
+				chunk.lastAccess = ++accessClock;
+				lastChunkX = chunk.x;
+				lastChunkY = chunk.y;
+				lastChunk = chunk;
+				loadListener.chunkLoaded(chunk.x, chunk.y);
+			}
+		}
+	}
+
+	/**
+	 * Writes out least recently used chunks until no more than the resident budget are in memory.
+	 * Only finished chunks that are further than UNLOAD_RADIUS from every given chunk position,
+	 * and weren't touched since the last call, are unloaded.
+	 * @param keep The chunk positions of the players in this level.
+	 */
+	public void unloadChunks(Collection<Point> keep) {
+		long since = lastUnloadClock;
+		lastUnloadClock = accessClock;
+		lastChunk = null; // So that the next access to every chunk is stamped.
+		queuedCount = 0;
+		if (store == null || residentCount <= residentBudget) return;
+
+		List<Chunk> queue = new ArrayList<>();
+		candidates:
+		for (Chunk chunk : chunks.values) {
+			if (chunk == null || chunk.ids == null || chunk.stage != CHUNK_STAGE_DONE || chunk.lastAccess > since)
+				continue;
+			for (Point p : keep)
+				if (Math.abs(chunk.x - p.x) <= UNLOAD_RADIUS && Math.abs(chunk.y - p.y) <= UNLOAD_RADIUS)
+					continue candidates;
+			queue.add(chunk);
+		}
+
+		queue.sort(Comparator.comparingLong(c -> c.lastAccess));
+		int i = 0;
+		for (; i < queue.size() && residentCount > residentBudget; i++) {
+			Chunk chunk = queue.get(i);
+			try {
+				store.write(chunk.x, chunk.y, chunk.ids, chunk.data);
+			} catch (IOException e) {
+				Logging.WORLD.error(e, "Unable to unload chunk ({}, {}); keeping it in memory.", chunk.x, chunk.y);
+				break;
+			}
+
+			chunk.ids = null;
+			chunk.data = null;
+			chunk.treeTypes = null;
+			residentCount--;
+			evictions++;
+		}
+
+		queuedCount = queue.size() - i;
+	}
+
+	/**
+	 * Somewhere unloaded chunks can be written to, and read back from when touched again.
+	 */
+	public interface ChunkStore {
+		void write(int chunkX, int chunkY, short[] ids, short[] data) throws IOException;
+		void read(int chunkX, int chunkY, short[] ids, short[] data) throws IOException;
+	}
+
+	/**
+	 * Told when a chunk from the world save is read for the first time,
+	 * so that whatever is usually done for every chunk as a world is loaded can be done then instead.
+	 */
+	public interface ChunkLoadListener {
+		void chunkLoaded(int chunkX, int chunkY);
+	}
+
+	/**
+	 * Tile ids and data are kept in two flat arrays, indexed x + y * CHUNK_SIZE,
+	 * so that a chunk costs a fixed 16KB and never allocates per tile.
+	 * An unloaded chunk keeps its position and stage, but drops both arrays.
+	 * Tree types are only kept for chunks that have had them asked for.
+	 */
 	private static class Chunk {
-		protected TileDat[] tiles;
+		protected final int x, y;
+		protected short[] ids;
+		protected short[] data;
+		protected byte[] treeTypes = null;
 		protected short stage = 0;
-		public Chunk() {
-			tiles = new TileDat[CHUNK_SIZE * CHUNK_SIZE];
+		protected long lastAccess = 0;
+		protected boolean dirty = true; // If the chunk differs from the world save; kept while it is unloaded
+		protected boolean unread = false; // If the chunk is in the world save, but was never read from there
+		public Chunk(int x, int y) {
+			this(x, y, new short[CHUNK_SIZE * CHUNK_SIZE], new short[CHUNK_SIZE * CHUNK_SIZE]);
+		}
+
+		/**
+		 * @param ids The tile ids, or null with data if the chunk isn't resident.
+		 */
+		public Chunk(int x, int y, short[] ids, short[] data) {
+			this.x = x;
+			this.y = y;
+			this.ids = ids;
+			this.data = data;
 		}
 
-		public TileDat getTileDat(int tileX, int tileY) {
-			int index = Math.floorMod(tileX, CHUNK_SIZE) + Math.floorMod(tileY, CHUNK_SIZE) * CHUNK_SIZE;
-			if(tiles[index] == null)
-				tiles[index] = new TileDat((short)0);
-			return tiles[index];
+		public static int index(int tileX, int tileY) {
+			return (tileX & (CHUNK_SIZE - 1)) + (tileY & (CHUNK_SIZE - 1)) * CHUNK_SIZE;
 		}
 	}
 
-	private static class TileDat {
-		protected short id, data;
+	/**
+	 * A linear-probing hash map from packed chunk coordinates to chunks.
+	 * Keys are primitive longs, so lookups neither box nor allocate.
+	 */
+	private static class ChunkMap {
+		private static final int INITIAL_CAPACITY = 64; // Must be a power of two
+
+		protected long[] keys;
+		protected Chunk[] values; // A null value marks an empty slot
+		protected int size = 0;
+
+		public ChunkMap() {
+			keys = new long[INITIAL_CAPACITY];
+			values = new Chunk[INITIAL_CAPACITY];
+		}
+
+		private static int hash(long key) {
+			long h = key * 0x9E3779B97F4A7C15L; // Fibonacci hashing spreads neighbouring coordinates apart
+			return (int) (h ^ (h >>> 32));
+		}
+
+		public Chunk get(long key) {
+			int mask = keys.length - 1;
+			for(int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask)
+				if(keys[i] == key)
+					return values[i];
+			return null;
+		}
+
+		public void put(long key, Chunk chunk) {
+			if((size + 1) * 2 > keys.length) // Keep the load factor at or below one half
+				resize(keys.length * 2);
+
+			int mask = keys.length - 1;
+			int i = hash(key) & mask;
+			while(values[i] != null) {
+				if(keys[i] == key) {
+					values[i] = chunk;
+					return;
+				}
+				i = (i + 1) & mask;
+			}
+
+			keys[i] = key;
+			values[i] = chunk;
+			size++;
+		}
+
+		private void resize(int capacity) {
+			long[] oldKeys = keys;
+			Chunk[] oldValues = values;
+			keys = new long[capacity];
+			values = new Chunk[capacity];
 
-		public TileDat(short id) {
-			this.id = id;
-			this.data = 0;
+			int mask = capacity - 1;
+			for(int j = 0; j < oldValues.length; j++) {
+				if(oldValues[j] == null) continue;
+				int i = hash(oldKeys[j]) & mask;
+				while(values[i] != null)
+					i = (i + 1) & mask;
+				keys[i] = oldKeys[j];
+				values[i] = oldValues[j];
+			}
 		}
 	}
 }
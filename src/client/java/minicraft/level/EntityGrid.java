@@ -0,0 +1,102 @@
+package minicraft.level;
+
+import minicraft.entity.Entity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Buckets the entities of a level by the square cell of the map they stand in,
+ * so that area queries only look at the entities in the cells they overlap, instead of every entity in the level.
+ * Entities are filed by their position only; queries on hit boxes widen the area by MARGIN to make up for it.
+ */
+class EntityGrid {
+	private static final int CELL_SHIFT = 6; // Cells are 64 entity pixels, or 4 tiles, wide
+	static final int MARGIN = 16; // No entity reaches further than this from its position
+
+	/**
+	 * The entities in one cell, along with which cell it is.
+	 */
+	private static class Cell extends ArrayList<Entity> {
+		private final long key;
+
+		public Cell(long key) {
+			super(4);
+			this.key = key;
+		}
+	}
+
+	private final HashMap<Long, Cell> cells = new HashMap<>();
+	private final IdentityHashMap<Entity, Cell> cellOf = new IdentityHashMap<>();
+
+	private static long key(int cellX, int cellY) {
+		return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+	}
+
+	private static long keyOf(Entity e) {
+		return key(e.x >> CELL_SHIFT, e.y >> CELL_SHIFT);
+	}
+
+	public void add(Entity e) {
+		if (cellOf.containsKey(e)) {
+			update(e);
+			return;
+		}
+
+		long key = keyOf(e);
+		Cell cell = cells.computeIfAbsent(key, Cell::new);
+		cell.add(e);
+		cellOf.put(e, cell);
+	}
+
+	public void remove(Entity e) {
+		Cell cell = cellOf.remove(e);
+		if (cell == null) return;
+		cell.remove(e);
+		if (cell.isEmpty())
+			cells.remove(cell.key);
+	}
+
+	/**
+	 * Moves an entity to the cell it is now in, if it has left its old one.
+	 */
+	public void update(Entity e) {
+		Cell cell = cellOf.get(e);
+		if (cell == null || cell.key == keyOf(e)) return;
+		remove(e);
+		add(e);
+	}
+
+	/**
+	 * Re-files every entity whose position was changed without going through update.
+	 */
+	public void updateAll() {
+		for (Entity e : new ArrayList<>(cellOf.keySet()))
+			update(e);
+	}
+
+	public void clear() {
+		cells.clear();
+		cellOf.clear();
+	}
+
+	/**
+	 * Adds every entity that may be positioned in the given area, in entity coordinates, to the list.
+	 * The cells overlapping the area are visited whole, so the caller still has to check each entity.
+	 */
+	public void collect(int x0, int y0, int x1, int y1, List<Entity> out) {
+		int cx1 = x1 >> CELL_SHIFT, cy1 = y1 >> CELL_SHIFT;
+		for (int cx = x0 >> CELL_SHIFT; cx <= cx1; cx++)
+			for (int cy = y0 >> CELL_SHIFT; cy <= cy1; cy++) {
+				Cell cell = cells.get(key(cx, cy));
+				if (cell != null)
+					out.addAll(cell);
+			}
+	}
+
+	public int size() {
+		return cellOf.size();
+	}
+}
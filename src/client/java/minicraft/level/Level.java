@@ -37,15 +37,22 @@ import minicraft.level.tile.TreeTile;
 import minicraft.level.tile.TreeTile.TreeType;
 import minicraft.util.Logging;
 import minicraft.util.MyUtils;
+import minicraft.util.Simplex;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
@@ -71,7 +78,17 @@ public class Level {
 	public ChunkManager chunkManager; // A collection of chunks with it's own interface
 	private Level parentLevel = null; // reference to parent level
 
-	public final TreeTile.TreeType[] treeTypes; // An array of tree types
+	public static final int CHUNK_LOAD_RADIUS = 3; // Chunks this close to a player are kept generated
+	private static final int CHUNK_NEEDED_RADIUS = 1; // Chunks this close to a player are generated right away, rather than in the background
+	private static final int CHUNK_LOOKAHEAD = 2; // How many chunks further out to generate in the direction a player is facing
+	public static int simulationRadius = 2; // Tiles are only randomly ticked in chunks this close to a player; should not exceed CHUNK_LOAD_RADIUS
+	public static int randomTickRate = ChunkManager.CHUNK_SIZE * ChunkManager.CHUNK_SIZE / 50; // Random tile ticks per simulated chunk per tick, about one in fifty tiles like before
+	private final TileTickQueue tileTicks = new TileTickQueue(); // Tile ticks scheduled by the tiles themselves
+	private long levelTicks = 0; // How many times this level has been fully ticked since it was created or loaded
+	private final LinkedHashMap<Point, Future<LevelGen.ChunkGen>> pendingChunks = new LinkedHashMap<>(); // Chunks being generated in the background, oldest first
+
+	private final Simplex treeNoise; // Decides which type each tree is, for chunks that don't know yet
+	private static final TreeType[] treeTypes = TreeType.values(); // values() copies the array every call
 
 	public final int depth; // Depth level of the level
 	public int monsterDensity = 16; // Affects the number of monsters that are on the level, bigger the number the less monsters spawn.
@@ -84,6 +101,7 @@ public class Level {
 	private final Set<Player> players = java.util.Collections.synchronizedSet(new HashSet<>()); // A list of all the players in the world
 	private final List<Entity> entitiesToAdd = new ArrayList<>(); /// entities that will be added to the level on next tick are stored here. This is for the sake of multithreading optimization. (hopefully)
 	private final List<Entity> entitiesToRemove = new ArrayList<>(); /// entities that will be removed from the level on next tick are stored here. This is for the sake of multithreading optimization. (hopefully)
+	private final EntityGrid entityGrid = new EntityGrid(); // The entities in the level, by where they are; guarded by entityLock like the set.
 
 	// Creates a sorter for all the entities to be rendered.
 	//private static Comparator<Entity> spriteSorter = Comparator.comparingInt(e -> e.y); // Broken
@@ -144,6 +162,17 @@ public class Level {
 	}
 
 	public Level(int w, int h, long seed, int level, Level parentLevel, boolean makeWorld) {
+		this(w, h, seed, level, parentLevel, makeWorld, null);
+	}
+
+	/**
+	 * Makes a new level out of chunks already generated by LevelGen.createAndValidateMaps.
+	 */
+	public Level(int w, int h, long seed, int level, Level parentLevel, ChunkManager chunks) {
+		this(w, h, seed, level, parentLevel, true, chunks);
+	}
+
+	private Level(int w, int h, long seed, int level, Level parentLevel, boolean makeWorld, ChunkManager chunks) {
 		depth = level;
 		this.w = w;
 		this.h = h;
@@ -152,36 +181,7 @@ public class Level {
 		random = new Random(seed);
 		short[][] maps; // Multidimensional array (an array within a array), used for the map
 
-		treeTypes = new TreeTile.TreeType[w * h];
-		{
-			LevelGen noise1 = new LevelGen(w, h, 32);
-			LevelGen noise2 = new LevelGen(w, h, 32);
-			TreeTile.TreeType[] types = TreeTile.TreeType.values();
-			for (int y = 0; y < h; y++) { // Loop through height
-				for (int x = 0; x < w; x++) { // Loop through width
-					// Randomly selecting a tree type.
-					int i = x + y * w;
-					double val = Math.abs(noise1.values[i] - noise2.values[i]) * 3 - 2;
-					// This calculates a sort of distance based on the current coordinate.
-					double xd = x / (w - 1.0) * 2 - 1;
-					double yd = y / (h - 1.0) * 2 - 1;
-					if (xd < 0) xd = -xd;
-					if (yd < 0) yd = -yd;
-					double dist = Math.max(xd, yd);
-					dist = dist * dist * dist * dist;
-					dist = dist * dist * dist * dist;
-					val += 1 - dist * 20;
-					val += 1.5; // Assuming the range of value is from 0 to 2.
-					val *= types.length / 2.0;
-					val += 1; // Incrementing index.
-					// The original val mainly falls in small interval instead of averagely.
-					val = 1.0 / (3 * types.length) * Math.pow(val - 5, 2); // Quadratically bloating the value.
-					int idx = (int) Math.round(val - 1); // Decrementing index.
-					treeTypes[x + y * w] = (idx >= types.length || idx < 0) ? TreeTile.TreeType.OAK // Oak by default.
-						: types[idx];
-				}
-			}
-		}
+		treeNoise = new Simplex(LevelGen.treeSeed(level));
 
 		if (level != -4 && level != 0)
 			monsterDensity = 8;
@@ -195,7 +195,7 @@ public class Level {
 
 		Logging.WORLD.debug("Making level " + level + "...");
 
-		chunkManager = LevelGen.createAndValidateMap(w, h, level, seed);
+		chunkManager = chunks != null ? chunks : LevelGen.createAndValidateMap(w, h, level, seed);
 		if (chunkManager == null) {
 			Logging.WORLD.error("Level generation: Returned chunks array is null");
 			return;
@@ -358,6 +358,36 @@ public class Level {
 		}
 	}
 
+	/**
+	 * Randomly ticks tiles in every generated chunk within the simulation radius of a player.
+	 * Chunks further away are left alone, so the cost depends on the players rather than on how much of the world exists.
+	 */
+	private void tickTiles() {
+		final int S = ChunkManager.CHUNK_SIZE;
+		LinkedHashSet<Point> simulated = new LinkedHashSet<>(); // Players close together share chunks
+		for (Player player : getPlayers()) {
+			int cx = Math.floorDiv(player.x >> 4, S);
+			int cy = Math.floorDiv(player.y >> 4, S);
+			for (int x = cx - simulationRadius; x <= cx + simulationRadius; x++)
+				for (int y = cy - simulationRadius; y <= cy + simulationRadius; y++)
+					simulated.add(new Point(x, y));
+		}
+
+		for (Point c : simulated) {
+			// Don't pull unloaded chunks back in, or tick placeholders for chunks that were not generated yet
+			if (!chunkManager.isChunkResident(c.x, c.y) || chunkManager.getChunkStage(c.x, c.y) < ChunkManager.CHUNK_STAGE_UNFINISHED_STAIRS)
+				continue;
+
+			tileTicks.resume(c.x, c.y);
+
+			for (int i = 0; i < randomTickRate; i++) {
+				int xt = c.x * S + random.nextInt(S);
+				int yt = c.y * S + random.nextInt(S);
+				getTile(xt, yt).tick(this, xt, yt);
+			}
+		}
+	}
+
 	private void tickEntity(Entity entity) {
 		if (entity == null) return;
 
@@ -389,6 +419,7 @@ public class Level {
 
 				synchronized (entityLock) {
 					entities.add(entity);
+					entityGrid.add(entity);
 					if (entity instanceof Player) {
 						players.add((Player) entity);
 					}
@@ -398,14 +429,16 @@ public class Level {
 			entitiesToAdd.remove(entity);
 		}
 
+		synchronized (entityLock) {
+			entityGrid.updateAll(); // Catches the entities that were put somewhere else directly, rather than moved.
+		}
+
 		if (fullTick) {
 			// This prevents any entity (or tile) tick action from happening on a server level with no players.
 
-			for (int i = 0; i < w * h / 50; i++) {
-				int xt = random.nextInt(w);
-				int yt = random.nextInt(w);
-				getTile(xt, yt).tick(this, xt, yt);
-			}
+			levelTicks++;
+			tickTiles();
+			tileTicks.run(this, levelTicks);
 
 			// Entity loop
 			for (Entity e : entities) {
@@ -422,6 +455,7 @@ public class Level {
 			entity.remove(this); // This will safely fail if the entity's level doesn't match this one.
 			synchronized (entityLock) {
 				entities.remove(entity);
+				entityGrid.remove(entity);
 			}
 
 			if (entity instanceof Player)
@@ -436,18 +470,35 @@ public class Level {
 	}
 
 	public void loadChunksAround(int tileX, int tileY) {
-		// Update all chunks up to 3 chunks away from the player to make sure they are loaded
+		loadChunksAround(tileX, tileY, 0, 0);
+	}
+
+	/**
+	 * Makes sure the chunks around a tile are generated. The nearest are generated right away if they aren't ready yet,
+	 * while the rest, and those a little further out in the given direction of travel, are generated in the background.
+	 */
+	public void loadChunksAround(int tileX, int tileY, int dirX, int dirY) {
+		installGeneratedChunks();
+
 		int cX = Math.floorDiv(tileX, ChunkManager.CHUNK_SIZE), cY = Math.floorDiv(tileY, ChunkManager.CHUNK_SIZE);
-		for(int x = cX - 3; x <= cX + 3; x++)
-			for(int y = cY - 3; y <= cY + 3; y++)
-				if(chunkManager.getChunkStage(x, y) != ChunkManager.CHUNK_STAGE_DONE)
-					loadChunk(x, y);
+		for(int x = cX - CHUNK_LOAD_RADIUS; x <= cX + CHUNK_LOAD_RADIUS; x++)
+			for(int y = cY - CHUNK_LOAD_RADIUS; y <= cY + CHUNK_LOAD_RADIUS; y++)
+				if(chunkManager.getChunkStage(x, y) != ChunkManager.CHUNK_STAGE_DONE) {
+					if(Math.abs(x - cX) <= CHUNK_NEEDED_RADIUS && Math.abs(y - cY) <= CHUNK_NEEDED_RADIUS)
+						loadChunk(x, y);
+					else
+						queueChunk(x, y);
+				}
+
+		// Only one of dirX and dirY is set, so (dirY, dirX) runs across the direction of travel.
+		for(int d = CHUNK_LOAD_RADIUS + 1; d <= CHUNK_LOAD_RADIUS + CHUNK_LOOKAHEAD && (dirX != 0 || dirY != 0); d++)
+			for(int s = -CHUNK_LOAD_RADIUS; s <= CHUNK_LOAD_RADIUS; s++)
+				queueChunk(cX + dirX * d + dirY * s, cY + dirY * d + dirX * s);
 	}
 
 	public void loadChunk(int x, int y) {
 		if(chunkManager.getChunkStage(x, y) == ChunkManager.CHUNK_STAGE_UNFINISHED_STAIRS && parentLevel != null) {
-			if(parentLevel.chunkManager.getChunkStage(x, y) == 0)
-				LevelGen.generateChunk(parentLevel.chunkManager, x, y, parentLevel.depth, seed);
+			parentLevel.generateChunk(x, y, true);
 			int S = ChunkManager.CHUNK_SIZE;
 			for(int i = x * S; i < x * S + S; i++)
 				for(int j = y * S; j < y * S + S; j++) {
@@ -468,8 +519,79 @@ public class Level {
 				}
 			chunkManager.setChunkStage(x, y, ChunkManager.CHUNK_STAGE_DONE);
 		}
-		if(chunkManager.getChunkStage(x, y) == 0)
+		generateChunk(x, y, true);
+	}
+
+	/**
+	 * Gets a chunk ready without waiting on it: its terrain is generated in the background,
+	 * and its stairs are matched up with the level above once that level's chunk is generated too.
+	 */
+	private void queueChunk(int x, int y) {
+		int stage = chunkManager.getChunkStage(x, y);
+		if(stage == 0)
+			generateChunk(x, y, false);
+		else if(stage == ChunkManager.CHUNK_STAGE_UNFINISHED_STAIRS && (parentLevel == null || parentLevel.generateChunk(x, y, false)))
+			loadChunk(x, y);
+	}
+
+	/**
+	 * Makes sure the terrain of a chunk is generated.
+	 * @param wait If false, the chunk is left to generate in the background if it isn't ready.
+	 * @return If the chunk has been generated.
+	 */
+	private boolean generateChunk(int x, int y, boolean wait) {
+		if(chunkManager.getChunkStage(x, y) != 0) return true;
+
+		Point p = new Point(x, y);
+		Future<LevelGen.ChunkGen> task = pendingChunks.get(p);
+		if(task == null) {
+			if(!wait) {
+				pendingChunks.put(p, LevelGen.generateChunkAsync(x, y, depth, seed));
+				return false;
+			}
+		} else if(wait || task.isDone()) {
+			pendingChunks.remove(p);
+			installChunk(task);
+		} else
+			return false;
+
+		if(chunkManager.getChunkStage(x, y) == 0) // Not queued, or the worker failed
 			LevelGen.generateChunk(chunkManager, x, y, depth, seed);
+		return true;
+	}
+
+	/**
+	 * Puts every chunk the workers have finished into the level, in the order they were queued.
+	 */
+	private void installGeneratedChunks() {
+		for(Iterator<Future<LevelGen.ChunkGen>> it = pendingChunks.values().iterator(); it.hasNext(); ) {
+			Future<LevelGen.ChunkGen> task = it.next();
+			if(!task.isDone()) continue;
+			it.remove();
+			installChunk(task);
+		}
+	}
+
+	private void installChunk(Future<LevelGen.ChunkGen> task) {
+		try {
+			task.get().install(chunkManager);
+		} catch (InterruptedException | ExecutionException e) {
+			Logging.WORLD.error(e, "Background chunk generation failed; the chunk will be generated in place.");
+		}
+	}
+
+	public int getPendingChunkCount() {
+		return pendingChunks.size();
+	}
+
+	/**
+	 * Unloads the least recently used chunks which are far from every player, if this level is over its chunk budget.
+	 */
+	public void unloadChunks() {
+		List<Point> keep = new ArrayList<>();
+		for (Player player : getPlayers())
+			keep.add(new Point(Math.floorDiv(player.x >> 4, ChunkManager.CHUNK_SIZE), Math.floorDiv(player.y >> 4, ChunkManager.CHUNK_SIZE)));
+		chunkManager.unloadChunks(keep);
 	}
 
 	public boolean entityNearPlayer(Entity entity) {
@@ -598,11 +720,7 @@ public class Level {
 	}
 
 	public TreeTile.TreeType getTreeType(int x, int y) {
-		LevelGen noise1 = new LevelGen(x, y, 1, 1, 32, -1);
-		LevelGen noise2 = new LevelGen(x, y, 1, 1, 32, -2);
-
-		int idx = (int)Math.round(Math.abs(noise1.values[0] - noise2.values[0]) * 3 - 2);
-		return (idx >= TreeType.values().length || idx < 0) ? TreeType.OAK : TreeType.values()[idx];
+		return treeTypes[chunkManager.getTreeType(x, y, treeNoise)];
 	}
 
 	public Tile getTile(int x, int y) {
@@ -640,6 +758,32 @@ public class Level {
 		chunkManager.setData(x, y, val);
 	}
 
+	/**
+	 * Schedules the current tile at the given position to have {@link Tile#scheduledTick} called after the given number of level ticks.
+	 * Replaces any tick already scheduled for that position.
+	 */
+	public void scheduleTileTick(int x, int y, int delay) {
+		tileTicks.schedule(x, y, getTile(x, y), levelTicks + Math.max(1, delay));
+	}
+
+	public boolean isTileTickScheduled(int x, int y) {
+		return tileTicks.isScheduled(x, y);
+	}
+
+	/**
+	 * @return The ticks scheduled on this level, along with the level tick they are due on.
+	 */
+	public Collection<TileTickQueue.ScheduledTick> getScheduledTileTicks() {
+		return tileTicks.getScheduled();
+	}
+
+	/**
+	 * @return The number of level ticks until the given scheduled tick is due, which is what should be saved.
+	 */
+	public int getTileTickDelay(TileTickQueue.ScheduledTick tick) {
+		return (int) Math.max(0, tick.time - levelTicks);
+	}
+
 	public void add(Entity e) {
 		if (e == null) return;
 		add(e, e.x, e.y);
@@ -745,7 +889,31 @@ public class Level {
 	}
 
 	public void clearEntities() {
-		entities.clear();
+		synchronized (entityLock) {
+			entities.clear();
+			entityGrid.clear();
+		}
+	}
+
+	/**
+	 * Should be called when an entity in this level has moved, so that it can be found where it is now.
+	 */
+	public void entityMoved(Entity entity) {
+		synchronized (entityLock) {
+			entityGrid.update(entity);
+		}
+	}
+
+	/**
+	 * Gets the entities that may be positioned in the given area, in entity coordinates.
+	 * The result still has to be checked against the area.
+	 */
+	private List<Entity> getEntitiesNear(int x0, int y0, int x1, int y1) {
+		List<Entity> nearby = new ArrayList<>();
+		synchronized (entityLock) {
+			entityGrid.collect(x0, y0, x1, y1, nearby);
+		}
+		return nearby;
 	}
 
 	public Entity[] getEntityArray() {
@@ -795,7 +963,7 @@ public class Level {
 	@SafeVarargs
 	public final List<Entity> getEntitiesInTiles(int xt0, int yt0, int xt1, int yt1, boolean includeGiven, Class<? extends Entity>... entityClasses) {
 		List<Entity> contained = new ArrayList<>();
-		for (Entity e : getEntityArray()) {
+		for (Entity e : getEntitiesNear(xt0 << 4, yt0 << 4, (xt1 << 4) + 15, (yt1 << 4) + 15)) {
 			int xt = e.x >> 4;
 			int yt = e.y >> 4;
 
@@ -825,7 +993,7 @@ public class Level {
 	 * @return True if there is an entity on the tile.
 	 */
 	public final boolean isEntityOnTile(int x, int y) {
-		for (Entity e : getEntityArray()) {
+		for (Entity e : getEntitiesNear(x << 4, y << 4, (x << 4) + 15, (y << 4) + 15)) {
 			int xt = e.x >> 4;
 			int yt = e.y >> 4;
 
@@ -838,7 +1006,7 @@ public class Level {
 
 	public List<Entity> getEntitiesInRect(Rectangle area) {
 		List<Entity> result = new ArrayList<>();
-		for (Entity e : getEntityArray()) {
+		for (Entity e : getEntitiesNear(area)) {
 			if (e.isTouching(area))
 				result.add(e);
 		}
@@ -847,7 +1015,7 @@ public class Level {
 
 	public List<Entity> getEntitiesInRect(Predicate<Entity> filter, Rectangle area) {
 		List<Entity> result = new LinkedList<>();
-		for (Entity entity : entities) {
+		for (Entity entity : getEntitiesNear(area)) {
 			if (filter.test(entity) && entity.isTouching(area)) {
 				result.add(entity);
 			}
@@ -855,6 +1023,12 @@ public class Level {
 		return result;
 	}
 
+	/** Gets the entities that may touch the given area, going by how far an entity can reach from its position. */
+	private List<Entity> getEntitiesNear(Rectangle area) {
+		int m = EntityGrid.MARGIN;
+		return getEntitiesNear(area.getLeft() - m, area.getTop() - m, area.getRight() + m, area.getBottom() + m);
+	}
+
 	/// Finds all entities that are an instance of the given entity.
 	public Entity[] getEntitiesOfClass(Class<? extends Entity> targetClass) {
 		ArrayList<Entity> matches = new ArrayList<>();
@@ -1,10 +1,12 @@
 package minicraft.level;
 
 import minicraft.core.Game;
+import minicraft.core.World;
 import minicraft.core.io.Settings;
 import minicraft.gfx.Point;
 import minicraft.gfx.Rectangle;
 import minicraft.level.tile.Tiles;
+import minicraft.level.tile.TreeTile;
 import minicraft.screen.RelPos;
 import minicraft.util.Logging;
 import minicraft.util.Simplex;
@@ -26,17 +28,29 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
 
 public class LevelGen {
 	private static long worldSeed = 0;
-	private static final Random random = new Random(worldSeed);
-	private static final Simplex noise = new Simplex(worldSeed);
+	private static final GenContext shared = new GenContext(worldSeed); // World creation carries this from chunk to chunk, and level to level
 	public double[] values; // An array of doubles, used to help making noise for the map
 	private final int w, h; // Width and height of the map
 	private static final int stairRadius = 15;
 
 	private static final int NOISE_LAYER_DIFF = 100;
 
+	public static int worldThreads = Runtime.getRuntime().availableProcessors(); // Threads the chunks of a new world are generated on; set by --world-threads
+
+	private static final ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)), r -> {
+		Thread thread = new Thread(r, "Chunk Generator");
+		thread.setDaemon(true);
+		return thread;
+	});
+
 	/**
 	 * This creates noise to create random values for level generation
 	 */
@@ -46,81 +60,259 @@ public class LevelGen {
 
 	public LevelGen(int xOffset, int yOffset, int w, int h, int featureSize) { this(xOffset, yOffset, w, h, featureSize, 0); }
 
-	public LevelGen(int xOffset, int yOffset, int w, int h, int featureSize, int layer) {
+	public LevelGen(int xOffset, int yOffset, int w, int h, int featureSize, int layer) { this(shared.noise, xOffset, yOffset, w, h, featureSize, layer); }
+
+	private LevelGen(Simplex noise, int xOffset, int yOffset, int w, int h, int featureSize, int layer) {
 		this.w = w;
 		this.h = h;
 
 		values = new double[w * h];
 
+		// The sample coordinates are worked out once per column and row, with the same float division as always, so the noise doesn't change.
+		double[] xs = new double[w], ys = new double[h];
 		for(int x = 0; x < w; x++)
-			for(int y = 0; y < h; y++) {
-				setSample(x, y, noise.noise3((x + xOffset) / (float)featureSize, (y + yOffset) / (float)featureSize, layer * NOISE_LAYER_DIFF));
-			}
+			xs[x] = (x + xOffset) / (float)featureSize;
+		for(int y = 0; y < h; y++)
+			ys[y] = (y + yOffset) / (float)featureSize;
+
+		noise.noise3Grid(values, xs, ys, layer * NOISE_LAYER_DIFF); // Fills values[x + y * w]
 	}
 
 	private double sample(int x, int y) {
 		return values[(x & (w - 1)) + (y & (h - 1)) * w];
 	} // This merely returns the value, like Level.getTile(x, y).
 
-	private void setSample(int x, int y, double value) {
-		/*
-		 * This method is short, but difficult to understand. This is what I think it does:
-		 *
-		 * The values array is like a 2D array, but formatted into a 1D array; so the basic "x + y * w" is used to access a given value.
-		 *
-		 * The value parameter is a random number, above set to be a random decimal from -1 to 1.
-		 *
-		 * From above, we can see that the x and y values passed in range from 0 to the width/height, and increment by a certain constant known as the "featureSize".
-		 * This implies that the locations chosen from this array, to put the random value in, somehow determine the size of biomes, perhaps.
-		 * The x/y value is taken and AND'ed with the size-1, which could be 127. This just caps the value at 127; however, it shouldn't be higher in the first place, so it is merely a safety measure.
-		 *
-		 * In other words, this is just "values[x + y * w] = value;"
+	/**
+	 * The random and noise state chunks are generated with.
+	 * Surface and cave chunks reseed it for every chunk, while sky and dungeon chunks carry on from wherever the last chunk left it.
+	 */
+	private static class GenContext {
+		private final Random random;
+		private final Simplex noise;
+
+		public GenContext(long seed) {
+			random = new Random(seed);
+			noise = new Simplex(seed);
+		}
+	}
+
+	/**
+	 * Generates a single chunk, in two steps.
+	 * The terrain step only touches the chunk's own tiles, and is where nearly all the time goes, building the noise layers;
+	 * it can run on any thread, into a ChunkManager of its own. The finishing step places the ores, stairs and decorations,
+	 * which look at, and sometimes spill into, the neighbouring chunks, so it has to run against the level's map, on the thread that owns it.
+	 */
+	static class ChunkGen {
+		final int chunkX, chunkY, level;
+		private final long seed;
+		private final GenContext context;
+		private final List<Point> rocks = new ArrayList<>(); // Where surface stairs may go, found by the terrain step
+		private ChunkManager detached = null; // Where the terrain went, if generated off the level's map
+
+		private ChunkGen(int chunkX, int chunkY, int level, long seed, GenContext context) {
+			this.chunkX = chunkX;
+			this.chunkY = chunkY;
+			this.level = level;
+			this.seed = seed;
+			this.context = context;
+		}
+
+		private void generateTerrain(ChunkManager map) {
+			if(level == 1)
+				generateSkyTerrain(map, this);
+			else if(level == 0) {
+				generateTopTerrain(map, this);
+				map.setTreeTypes(chunkX, chunkY, generateTreeTypes(new Simplex(treeSeed(level)), chunkX, chunkY)); // Where the trees are
+			}
+			else if(level == -4)
+				generateDungeonTerrain(map, this);
+			else if(level > -4 && level < 0)
+				generateUndergroundTerrain(map, this, -level);
+			else
+				Logger.tag("LevelGen").error("Level index is not valid. Could not generate a chunk at " + chunkX + ", " + chunkY + " on level " + level + " with seed " + seed);
+		}
+
+		private void finish(ChunkManager map) {
+			if(level == 1)
+				finishSkyChunk(map, this);
+			else if(level == 0)
+				finishTopChunk(map, this);
+			else if(level == -4)
+				finishDungeonChunk(map, this);
+			else if(level > -4 && level < 0)
+				finishUndergroundChunk(map, this, -level);
+
+			map.setChunkStage(chunkX, chunkY, ChunkManager.CHUNK_STAGE_UNFINISHED_STAIRS);
+		}
+
+		/**
+		 * Moves the terrain generated by generateChunkAsync into the level's map, and finishes the chunk there.
+		 * Does nothing if the chunk has been generated some other way in the meantime.
 		 */
-		values[(x & (w - 1)) + (y & (h - 1)) * w] = value;
+		void install(ChunkManager map) {
+			if(map.getChunkStage(chunkX, chunkY) != 0) return;
+			map.installChunk(detached, chunkX, chunkY);
+			detached = null;
+			finish(map);
+		}
 	}
 
+	/**
+	 * Generates a chunk in place, while the game waits. Every chunk gets random and noise state of its own, seeded from the level seed,
+	 * so a chunk comes out the same whether it is generated here or by generateChunkAsync.
+	 */
 	static void generateChunk(ChunkManager chunkManager, int x, int y, int level, long seed) {
-		worldSeed = seed;
+		ChunkGen gen = new ChunkGen(x, y, level, seed, new GenContext(seed));
+		gen.generateTerrain(chunkManager);
+		gen.finish(chunkManager);
+	}
+
+	/**
+	 * Starts generating a chunk's terrain on a worker thread. Once the returned task is done,
+	 * ChunkGen.install has to be called on the game thread to put the chunk into the level.
+	 */
+	static Future<ChunkGen> generateChunkAsync(int x, int y, int level, long seed) {
+		ChunkGen gen = new ChunkGen(x, y, level, seed, new GenContext(seed));
+		return workers.submit(() -> {
+			gen.detached = new ChunkManager();
+			gen.generateTerrain(gen.detached);
+			return gen;
+		});
+	}
+
+	/**
+	 * The seed tree types are worked out from. The level seed of a new world isn't saved, so this follows the world seed instead,
+	 * and trees look the same whether their chunk was just generated, or read back from a save.
+	 */
+	static long treeSeed(int level) {
+		return World.getWorldSeed() + level;
+	}
+
+	/**
+	 * Works out the tree type of every tile in a chunk, as indices into TreeTile.TreeType.values(), laid out like the chunk's tiles.
+	 * @param noise Should be seeded with treeSeed of the chunk's level.
+	 */
+	static byte[] generateTreeTypes(Simplex noise, int chunkX, int chunkY) {
+		int S = ChunkManager.CHUNK_SIZE;
+		LevelGen noise1 = new LevelGen(noise, chunkX * S, chunkY * S, S, S, 32, -1);
+		LevelGen noise2 = new LevelGen(noise, chunkX * S, chunkY * S, S, S, 32, -2);
+
+		int types = TreeTile.TreeType.values().length;
+		byte[] treeTypes = new byte[S * S];
+		for (int i = 0; i < treeTypes.length; i++) {
+			int idx = (int)Math.round(Math.abs(noise1.values[i] - noise2.values[i]) * 3 - 2);
+			treeTypes[i] = (byte) ((idx >= types || idx < 0) ? TreeTile.TreeType.OAK.ordinal() : idx);
+		}
+		return treeTypes;
+	}
 
-		if(level == 1)
-			generateSkyChunk(chunkManager, x, y);
-		else if(level == 0)
-			generateTopChunk(chunkManager, x, y);
-		else if(level == -4)
-			generateDungeonChunk(chunkManager, x, y);
-		else if(level > -4 && level < 0)
-			generateUndergroundChunk(chunkManager, x, y, -level);
-		else
-			Logger.tag("LevelGen").error("Level index is not valid. Could not generate a chunk at " + x + ", " + y + " on level " + level + " with seed " + seed);
-
-		chunkManager.setChunkStage(x, y, ChunkManager.CHUNK_STAGE_UNFINISHED_STAIRS);
+	/**
+	 * Surface and cave chunks start from their level seed; the others carry on from the chunk generated before them.
+	 */
+	private static boolean reseedsPerChunk(int level) {
+		return level == 0 || (level > -4 && level < 0);
+	}
+
+	/**
+	 * Generates the chunks of every level of a new world at once, on a fork-join pool, with the same result as
+	 * generating them one level, and one chunk, at a time from a fresh session.
+	 * The terrain of surface and cave chunks is generated in parallel; each level then installs and finishes its chunks
+	 * in order, as the finishing step looks at neighbouring chunks, and at which of them are generated yet.
+	 * Sky and dungeon chunks carry their random state over from the chunk before, so each of those levels is generated in order,
+	 * once the level before it is done.
+	 * @param levels The levels to generate, from the top down.
+	 * @param seeds The seed of each level.
+	 */
+	public static ChunkManager[] createAndValidateMaps(int w, int h, int[] levels, long[] seeds) {
+		int chunksX = w / ChunkManager.CHUNK_SIZE, chunksY = h / ChunkManager.CHUNK_SIZE;
+		ChunkManager[] maps = new ChunkManager[levels.length];
+		GenContext[] lastContext = new GenContext[levels.length]; // The state the last chunk of each level left behind
+		ForkJoinTask<?>[] finished = new ForkJoinTask<?>[levels.length];
+
+		ForkJoinPool pool = new ForkJoinPool(Math.max(1, worldThreads));
+		try {
+			for (int l = 0; l < levels.length; l++) {
+				int lvl = l;
+				ChunkManager map = maps[l] = new ChunkManager();
+				if (reseedsPerChunk(levels[l])) {
+					ChunkGen[] gens = new ChunkGen[chunksX * chunksY];
+					ForkJoinTask<?>[] terrain = new ForkJoinTask<?>[gens.length];
+					for (int i = 0; i < gens.length; i++) {
+						ChunkGen gen = gens[i] = new ChunkGen(i / chunksY, i % chunksY, levels[l], seeds[l], new GenContext(seeds[l]));
+						terrain[i] = pool.submit(() -> {
+							gen.detached = new ChunkManager();
+							gen.generateTerrain(gen.detached);
+						});
+					}
+
+					finished[l] = pool.submit(() -> {
+						for (int i = 0; i < gens.length; i++) {
+							terrain[i].join();
+							gens[i].install(map);
+							lastContext[lvl] = gens[i].context;
+						}
+					});
+				} else {
+					ForkJoinTask<?> previous = l == 0 ? null : finished[l - 1];
+					finished[l] = pool.submit(() -> {
+						GenContext context = new GenContext(0); // What a fresh session starts with
+						if (previous != null) {
+							previous.join();
+							if (lastContext[lvl - 1] != null) context = lastContext[lvl - 1];
+						}
+
+						for (int i = 0; i < chunksX; i++)
+							for (int j = 0; j < chunksY; j++) {
+								ChunkGen gen = new ChunkGen(i, j, levels[lvl], seeds[lvl], context);
+								gen.generateTerrain(map);
+								gen.finish(map);
+							}
+						lastContext[lvl] = context;
+					});
+				}
+			}
+
+			for (ForkJoinTask<?> task : finished)
+				task.join();
+		} finally {
+			pool.shutdown();
+		}
+
+		return maps;
 	}
 
 	static ChunkManager createAndValidateMap(int w, int h, int level, long seed) {
+		worldSeed = seed;
 		ChunkManager cm = new ChunkManager();
 		for(int i = 0; i < w / ChunkManager.CHUNK_SIZE; i++)
-			for(int j = 0; j < h / ChunkManager.CHUNK_SIZE; j++)
-				generateChunk(cm, i, j, level, seed);
+			for(int j = 0; j < h / ChunkManager.CHUNK_SIZE; j++) {
+				ChunkGen gen = new ChunkGen(i, j, level, seed, shared);
+				gen.generateTerrain(cm);
+				gen.finish(cm);
+			}
 		return cm;
 	}
 
-	private static void generateTopChunk(ChunkManager map, int chunkX, int chunkY) {
-		random.setSeed(worldSeed);
-		noise.setSeed(worldSeed);
+	private static void generateTopTerrain(ChunkManager map, ChunkGen gen) {
+		Random random = gen.context.random;
+		Simplex noise = gen.context.noise;
+		random.setSeed(gen.seed);
+		noise.setSeed(gen.seed);
+		int chunkX = gen.chunkX, chunkY = gen.chunkY;
 
 		// Brevity
 		int S = ChunkManager.CHUNK_SIZE;
 
 		// creates a bunch of value maps, some with small size...
-		LevelGen mnoise1 = new LevelGen(chunkX * S, chunkY * S, S, S, 16, 0);
-		LevelGen mnoise2 = new LevelGen(chunkX * S, chunkY * S, S, S, 16, 1);
-		LevelGen mnoise3 = new LevelGen(chunkX * S, chunkY * S, S, S, 16, 2);
+		LevelGen mnoise1 = new LevelGen(noise, chunkX * S, chunkY * S, S, S, 16, 0);
+		LevelGen mnoise2 = new LevelGen(noise, chunkX * S, chunkY * S, S, S, 16, 1);
+		LevelGen mnoise3 = new LevelGen(noise, chunkX * S, chunkY * S, S, S, 16, 2);
 
 		// ...and some with larger size.
-		LevelGen noise1 = new LevelGen(chunkX * S, chunkY * S, S, S, 32, 3);
-		LevelGen noise2 = new LevelGen(chunkX * S, chunkY * S, S, S, 32, 4);
+		LevelGen noise1 = new LevelGen(noise, chunkX * S, chunkY * S, S, S, 32, 3);
+		LevelGen noise2 = new LevelGen(noise, chunkX * S, chunkY * S, S, S, 32, 4);
 
-    List<Point> rocks = new ArrayList<>();
+		List<Point> rocks = gen.rocks;
 
 		int tileX = chunkX * S, tileY = chunkY * S;
 		for(int y = tileY; y < tileY + S; y++)
@@ -329,7 +521,12 @@ public class LevelGen {
 				}
 			}
 		}
+	}
 
+	private static void finishTopChunk(ChunkManager map, ChunkGen gen) {
+		Random random = gen.context.random;
+		List<Point> rocks = gen.rocks;
+		int S = ChunkManager.CHUNK_SIZE;
 		int count = 0;
 
 		stairsLoop:
@@ -356,10 +553,13 @@ public class LevelGen {
 		}
 	}
 
-	private static void generateDungeonChunk(ChunkManager map, int chunkX, int chunkY) {
+	private static void generateDungeonTerrain(ChunkManager map, ChunkGen gen) {
+		Random random = gen.context.random;
+		Simplex noise = gen.context.noise;
+		int chunkX = gen.chunkX, chunkY = gen.chunkY;
 		int S = ChunkManager.CHUNK_SIZE;
-		LevelGen noise1 = new LevelGen(chunkX * S, chunkY * S, S, S, 10, 0);
-		LevelGen noise2 = new LevelGen(chunkX * S, chunkY * S, S, S, 10, 1);
+		LevelGen noise1 = new LevelGen(noise, chunkX * S, chunkY * S, S, S, 10, 0);
+		LevelGen noise2 = new LevelGen(noise, chunkX * S, chunkY * S, S, S, 10, 1);
 
 		int tileX = chunkX * S, tileY = chunkY * S;
 		for(int y = tileY; y < tileY + S; y++) {
@@ -385,6 +585,11 @@ public class LevelGen {
 				}
 			}
 		}
+	}
+
+	private static void finishDungeonChunk(ChunkManager map, ChunkGen gen) {
+		Random random = gen.context.random;
+		int S = ChunkManager.CHUNK_SIZE;
 
 		decorLoop:
 		for (int i = 0; i < S * S / 450; i++) {
@@ -407,24 +612,26 @@ public class LevelGen {
 		}
 	}
 
-	private static void generateUndergroundChunk(ChunkManager map, int chunkX, int chunkY, int depth) {
-		random.setSeed(worldSeed);
-		noise.setSeed(worldSeed);
+	private static void generateUndergroundTerrain(ChunkManager map, ChunkGen gen, int depth) {
+		gen.context.random.setSeed(gen.seed);
+		Simplex noise = gen.context.noise;
+		noise.setSeed(gen.seed);
+		int chunkX = gen.chunkX, chunkY = gen.chunkY;
 		int S = ChunkManager.CHUNK_SIZE;
-		LevelGen mnoise1 = new LevelGen(chunkX * S, chunkY * S, S, S, 16, depth * 11 + 0);
-		LevelGen mnoise2 = new LevelGen(chunkX * S, chunkY * S, S, S, 16, depth * 11 + 1);
-		LevelGen mnoise3 = new LevelGen(chunkX * S, chunkY * S, S, S, 16, depth * 11 + 2);
+		LevelGen mnoise1 = new LevelGen(noise, chunkX * S, chunkY * S, S, S, 16, depth * 11 + 0);
+		LevelGen mnoise2 = new LevelGen(noise, chunkX * S, chunkY * S, S, S, 16, depth * 11 + 1);
+		LevelGen mnoise3 = new LevelGen(noise, chunkX * S, chunkY * S, S, S, 16, depth * 11 + 2);
 
-		LevelGen nnoise1 = new LevelGen(chunkX * S, chunkY * S, S, S, 16, depth * 11 + 3);
-		LevelGen nnoise2 = new LevelGen(chunkX * S, chunkY * S, S, S, 16, depth * 11 + 4);
-		LevelGen nnoise3 = new LevelGen(chunkX * S, chunkY * S, S, S, 16, depth * 11 + 5);
+		LevelGen nnoise1 = new LevelGen(noise, chunkX * S, chunkY * S, S, S, 16, depth * 11 + 3);
+		LevelGen nnoise2 = new LevelGen(noise, chunkX * S, chunkY * S, S, S, 16, depth * 11 + 4);
+		LevelGen nnoise3 = new LevelGen(noise, chunkX * S, chunkY * S, S, S, 16, depth * 11 + 5);
 
-		LevelGen wnoise1 = new LevelGen(chunkX * S, chunkY * S, S, S, 16, depth * 11 + 6);
-		LevelGen wnoise2 = new LevelGen(chunkX * S, chunkY * S, S, S, 16, depth * 11 + 7);
-		LevelGen wnoise3 = new LevelGen(chunkX * S, chunkY * S, S, S, 16, depth * 11 + 8);
+		LevelGen wnoise1 = new LevelGen(noise, chunkX * S, chunkY * S, S, S, 16, depth * 11 + 6);
+		LevelGen wnoise2 = new LevelGen(noise, chunkX * S, chunkY * S, S, S, 16, depth * 11 + 7);
+		LevelGen wnoise3 = new LevelGen(noise, chunkX * S, chunkY * S, S, S, 16, depth * 11 + 8);
 
-		LevelGen noise1 = new LevelGen(chunkX * S, chunkY * S, S, S, 32, depth * 11 + 9);
-		LevelGen noise2 = new LevelGen(chunkX * S, chunkY * S, S, S, 32, depth * 11 + 10);
+		LevelGen noise1 = new LevelGen(noise, chunkX * S, chunkY * S, S, S, 32, depth * 11 + 9);
+		LevelGen noise2 = new LevelGen(noise, chunkX * S, chunkY * S, S, S, 32, depth * 11 + 10);
 
 		int tileX = chunkX * S, tileY = chunkY * S;
 		for(int y = tileY; y < tileY + S; y++) {
@@ -455,6 +662,12 @@ public class LevelGen {
 				}
 			}
 		}
+	}
+
+	private static void finishUndergroundChunk(ChunkManager map, ChunkGen gen, int depth) {
+		Random random = gen.context.random;
+		int S = ChunkManager.CHUNK_SIZE;
+		int tileX = gen.chunkX * S, tileY = gen.chunkY * S;
 		{
 			int r = 2;
 			for (int i = 0; i < S * S / 200; i++) {
@@ -505,10 +718,12 @@ public class LevelGen {
 
 	}
 
-	private static void generateSkyChunk(ChunkManager map, int chunkX, int chunkY) {
+	private static void generateSkyTerrain(ChunkManager map, ChunkGen gen) {
+		Simplex noise = gen.context.noise;
+		int chunkX = gen.chunkX, chunkY = gen.chunkY;
 		int S = ChunkManager.CHUNK_SIZE;
-		LevelGen noise1 = new LevelGen(S * chunkX, S * chunkY, S, S, 8, 0);
-		LevelGen noise2 = new LevelGen(S * chunkX, S * chunkY, S, S, 8, 1);
+		LevelGen noise1 = new LevelGen(noise, S * chunkX, S * chunkY, S, S, 8, 0);
+		LevelGen noise2 = new LevelGen(noise, S * chunkX, S * chunkY, S, S, 8, 1);
 
 		int tileX = chunkX * S, tileY = chunkY * S;
 		for(int y = tileY; y < tileY + S; y++) {
@@ -528,6 +743,12 @@ public class LevelGen {
 				}
 			}
 		}
+	}
+
+	private static void finishSkyChunk(ChunkManager map, ChunkGen gen) {
+		Random random = gen.context.random;
+		int S = ChunkManager.CHUNK_SIZE;
+		int tileX = gen.chunkX * S, tileY = gen.chunkY * S;
 
 		stairsLoop:
 		for (int i = 0; i < S * S / 50; i++) {
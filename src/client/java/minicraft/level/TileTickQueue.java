@@ -0,0 +1,98 @@
+package minicraft.level;
+
+import minicraft.gfx.Point;
+import minicraft.level.tile.Tile;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Tile ticks scheduled for a certain tick of a level, soonest first.
+ * A tile has at most one scheduled tick; scheduling it again replaces the earlier one,
+ * which is then skipped when it comes up rather than searched for in the queue.
+ */
+public class TileTickQueue {
+
+	public static class ScheduledTick implements Comparable<ScheduledTick> {
+		public final int x, y;
+		public final long time; // The level tick this is due on
+		private final Tile tile; // The tile this was scheduled for; nothing happens if it has been replaced since
+		private final long order; // Ticks due on the same level tick run in the order they were scheduled
+
+		private ScheduledTick(int x, int y, long time, Tile tile, long order) {
+			this.x = x;
+			this.y = y;
+			this.time = time;
+			this.tile = tile;
+			this.order = order;
+		}
+
+		@Override
+		public int compareTo(ScheduledTick other) {
+			if (time != other.time) return Long.compare(time, other.time);
+			return Long.compare(order, other.order);
+		}
+	}
+
+	private final PriorityQueue<ScheduledTick> queue = new PriorityQueue<>();
+	private final HashMap<Point, ScheduledTick> latest = new HashMap<>(); // The tick that counts for each tile
+	private final HashMap<Point, List<ScheduledTick>> parked = new HashMap<>(); // Ticks that came due while their chunk was unloaded, by chunk
+	private long scheduledCount = 0;
+
+	public void schedule(int x, int y, Tile tile, long time) {
+		ScheduledTick tick = new ScheduledTick(x, y, time, tile, scheduledCount++);
+		latest.put(new Point(x, y), tick);
+		queue.add(tick);
+	}
+
+	public boolean isScheduled(int x, int y) {
+		return latest.containsKey(new Point(x, y));
+	}
+
+	/**
+	 * Runs every tick that is due by the given level tick.
+	 * Ticks in chunks that are not resident are put aside until {@link #resume(int, int)} is called for their chunk,
+	 * instead of loading the chunk back in.
+	 */
+	public void run(Level level, long now) {
+		while (!queue.isEmpty() && queue.peek().time <= now) {
+			ScheduledTick tick = queue.poll();
+			Point pos = new Point(tick.x, tick.y);
+			if (latest.get(pos) != tick) continue; // Replaced by a later call to schedule
+
+			int chunkX = Math.floorDiv(tick.x, ChunkManager.CHUNK_SIZE), chunkY = Math.floorDiv(tick.y, ChunkManager.CHUNK_SIZE);
+			if (!level.chunkManager.isChunkResident(chunkX, chunkY)) {
+				parked.computeIfAbsent(new Point(chunkX, chunkY), k -> new ArrayList<>()).add(tick);
+				continue;
+			}
+
+			latest.remove(pos);
+			if (level.getTile(tick.x, tick.y) == tick.tile)
+				tick.tile.scheduledTick(level, tick.x, tick.y);
+		}
+	}
+
+	/**
+	 * Puts the ticks that came due while the given chunk was unloaded back in the queue, to run on the next call to run.
+	 */
+	public void resume(int chunkX, int chunkY) {
+		if (parked.isEmpty()) return;
+		List<ScheduledTick> ticks = parked.remove(new Point(chunkX, chunkY));
+		if (ticks != null)
+			queue.addAll(ticks);
+	}
+
+	/**
+	 * @return Every tick that is still to run, including those put aside.
+	 */
+	public Collection<ScheduledTick> getScheduled() {
+		return latest.values();
+	}
+
+	public int size() {
+		return latest.size();
+	}
+}
@@ -40,7 +40,7 @@ public class CactusTile extends Tile {
 
 		if (damage >= cHealth) {
 			//int count = random.nextInt(2) + 2;
-			level.setTile(x, y, Tiles.get("sand"));
+			level.setTile(x, y, Tiles.SAND);
 			Sound.play("monsterhurt");
 			level.dropItem((x << 4) + 8, (y << 4) + 8, 2, 4, Items.get("Cactus"));
 		} else {
@@ -51,7 +51,7 @@ public class CactusTile extends Tile {
 
 	@Override
 	public void render(Screen screen, Level level, int x, int y) {
-		Tiles.get("Sand").render(screen, level, x, y);
+		Tiles.SAND.render(screen, level, x, y);
 		sprite.render(screen, level, x, y);
 	}
 
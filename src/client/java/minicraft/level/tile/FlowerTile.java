@@ -69,14 +69,14 @@ public class FlowerTile extends Tile {
 		if (random.nextBoolean()) xn += random.nextInt(2) * 2 - 1;
 		else yn += random.nextInt(2) * 2 - 1;
 
-		if (level.getTile(xn, yn) == Tiles.get("Dirt")) {
-			level.setTile(xn, yn, Tiles.get("Grass"));
+		if (level.getTile(xn, yn) == Tiles.DIRT) {
+			level.setTile(xn, yn, Tiles.GRASS);
 		}
 		return false;
 	}
 
 	public void render(Screen screen, Level level, int x, int y) {
-		Tiles.get("Grass").render(screen, level, x, y);
+		Tiles.GRASS.render(screen, level, x, y);
 		FlowerVariant.values()[level.getData(x, y)].sprite.render(screen, level, x, y);
 	}
 
@@ -86,7 +86,7 @@ public class FlowerTile extends Tile {
 			if (tool.type == ToolType.Shovel) {
 				if (player.payStamina(2 - tool.level) && tool.payDurability()) {
 					int data = level.getData(x, y);
-					level.setTile(x, y, Tiles.get("Grass"));
+					level.setTile(x, y, Tiles.GRASS);
 					Sound.play("monsterhurt");
 					level.dropItem((x << 4) + 8, (y << 4) + 8, Items.get(FlowerVariant.values()[level.getData(x, y)].name));
 					AdvancementElement.AdvancementTrigger.ItemUsedOnTileTrigger.INSTANCE.trigger(
@@ -101,7 +101,7 @@ public class FlowerTile extends Tile {
 
 	public boolean hurt(Level level, int x, int y, Mob source, int dmg, Direction attackDir) {
 		level.dropItem((x << 4) + 8, (y << 4) + 8, Items.get(FlowerVariant.values()[level.getData(x, y)].name));
-		level.setTile(x, y, Tiles.get("Grass"));
+		level.setTile(x, y, Tiles.GRASS);
 		return true;
 	}
 }
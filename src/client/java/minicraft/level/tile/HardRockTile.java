@@ -70,7 +70,7 @@ public class HardRockTile extends Tile {
 
 		level.add(new TextParticle("" + dmg, (x << 4) + 8, (y << 4) + 8, Color.RED));
 		if (damage >= hrHealth) {
-			level.setTile(x, y, Tiles.get("dirt"));
+			level.setTile(x, y, Tiles.DIRT);
 			level.dropItem((x << 4) + 8, (y << 4) + 8, 1, 3, Items.get("Stone"));
 			level.dropItem((x << 4) + 8, (y << 4) + 8, 0, 1, Items.get("Coal"));
 		} else {
@@ -80,7 +80,7 @@ public class HardRockTile extends Tile {
 
 	@Override
 	public void render(Screen screen, Level level, int x, int y) {
-		Tiles.get("dirt").render(screen, level, x, y);
+		Tiles.DIRT.render(screen, level, x, y);
 		super.render(screen, level, x, y);
 	}
 
@@ -32,7 +32,7 @@ public class LavaTile extends Tile {
 
 	@Override
 	public void render(Screen screen, Level level, int x, int y) {
-		Tiles.get("dirt").render(screen, level, x, y);
+		Tiles.DIRT.render(screen, level, x, y);
 		super.render(screen, level, x, y);
 	}
 
@@ -44,7 +44,7 @@ public class LavaTile extends Tile {
 		if (random.nextBoolean()) xn += random.nextInt(2) * 2 - 1;
 		else yn += random.nextInt(2) * 2 - 1;
 
-		if (level.getTile(xn, yn) == Tiles.get("hole")) {
+		if (level.getTile(xn, yn) == Tiles.HOLE) {
 			level.setTile(xn, yn, this);
 		}
 		return false;
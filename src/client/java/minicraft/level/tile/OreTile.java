@@ -51,9 +51,9 @@ public class OreTile extends Tile {
 
 	public void render(Screen screen, Level level, int x, int y) {
 		if (type == OreType.Cloud)
-			Tiles.get("cloud").render(screen, level, x, y);
+			Tiles.CLOUD.render(screen, level, x, y);
 		else
-			Tiles.get("dirt").render(screen, level, x, y);
+			Tiles.DIRT.render(screen, level, x, y);
 		sprite.render(screen, level, x, y);
 	}
 
@@ -102,9 +102,9 @@ public class OreTile extends Tile {
 			int count = random.nextInt(2);
 			if (damage >= oreH) {
 				if (type == OreType.Cloud) {
-					level.setTile(x, y, Tiles.get("Cloud"));
+					level.setTile(x, y, Tiles.CLOUD);
 				} else {
-					level.setTile(x, y, Tiles.get("Dirt"));
+					level.setTile(x, y, Tiles.DIRT);
 				}
 				count += 2;
 			} else {
@@ -31,7 +31,7 @@ public class PathTile extends Tile {
 			if (tool.type == ToolType.Shovel) {
 				if (player.payStamina(4 - tool.level) && tool.payDurability()) {
 					int data = level.getData(xt, yt);
-					level.setTile(xt, yt, Tiles.get("Hole"));
+					level.setTile(xt, yt, Tiles.HOLE);
 					Sound.play("monsterhurt");
 					level.dropItem((xt << 4) + 8, (yt << 4) + 8, Items.get("Dirt"));
 					AdvancementElement.AdvancementTrigger.ItemUsedOnTileTrigger.INSTANCE.trigger(
@@ -37,7 +37,7 @@ public class RockTile extends Tile {
 	}
 
 	public void render(Screen screen, Level level, int x, int y) {
-		Tiles.get("dirt").render(screen, level, x, y);
+		Tiles.DIRT.render(screen, level, x, y);
 		sprite.render(screen, level, x, y);
 	}
 
@@ -94,7 +94,7 @@ public class RockTile extends Tile {
 			}
 
 			level.dropItem((x << 4) + 8, (y << 4) + 8, stone, Items.get("Stone"));
-			level.setTile(x, y, Tiles.get("Dirt"));
+			level.setTile(x, y, Tiles.DIRT);
 		} else {
 			level.setData(x, y, damage);
 		}
@@ -41,17 +41,29 @@ public class SaplingTile extends Tile {
 		sprite.render(screen, level, x, y);
 	}
 
+	private static final int MAX_AGE = 110; // Saplings used to age on random ticks, and grow past this
+	private static final int AGE_TICKS = 50; // About how many ticks apart random ticks land on a tile
+
+	@Override
+	public void onTileSet(Level level, int x, int y) {
+		// Older saves keep how far a sapling got in its data
+		level.scheduleTileTick(x, y, (MAX_AGE - Math.min(level.getData(x, y), MAX_AGE)) * AGE_TICKS);
+	}
+
+	@Override
+	public void scheduledTick(Level level, int x, int y) {
+		// Don't grow if there is an entity on this tile.
+		if (level.isEntityOnTile(x, y))
+			level.scheduleTileTick(x, y, AGE_TICKS);
+		else
+			level.setTile(x, y, growsTo);
+	}
+
 	public boolean tick(Level level, int x, int y) {
-		int age = level.getData(x, y) + 1;
-		if (age > 110) {
-			// Don't grow if there is an entity on this tile.
-			if (!level.isEntityOnTile(x, y)) {
-				level.setTile(x, y, growsTo);
-			}
-		} else {
-			level.setData(x, y, age);
-		}
-		return true;
+		// Saplings placed without onTileSet being called still need to be scheduled
+		if (!level.isTileTickScheduled(x, y))
+			onTileSet(level, x, y);
+		return false;
 	}
 
 	public boolean hurt(Level level, int x, int y, Mob source, int dmg, Direction attackDir) {
@@ -125,6 +125,13 @@ public abstract class Tile {
 		return false;
 	}
 
+	/**
+	 * Called when a tick scheduled with {@link Level#scheduleTileTick(int, int, int)} comes due,
+	 * if this is still the tile it was scheduled for.
+	 */
+	public void scheduledTick(Level level, int xt, int yt) {
+	}
+
 	/**
 	 * What happens when you are inside the tile (ex: lava)
 	 */
@@ -1,6 +1,5 @@
 package minicraft.level.tile;
 
-import minicraft.core.CrashHandler;
 import minicraft.item.DyeItem;
 import minicraft.level.tile.farming.CarrotTile;
 import minicraft.level.tile.farming.FarmTile;
@@ -17,6 +16,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class Tiles {
 	/// Idea: to save tile names while saving space, I could encode the names in base 64 in the save file...^M
@@ -24,7 +24,15 @@ public final class Tiles {
 
 	public static ArrayList<String> oldids = new ArrayList<>();
 
-	private static HashMap<Short, Tile> tiles = new HashMap<>();
+	// Tiles by id; ids are dense and small, so an array is all the lookup needs.
+	private static Tile[] tiles = new Tile[256];
+	// Tiles by upper case name, for the names the tiles were made with.
+	private static HashMap<String, Tile> names = new HashMap<>();
+	// Tiles by name exactly as requested, so that the same lookup doesn't change case and cut the name again.
+	private static final ConcurrentHashMap<String, Tile> requested = new ConcurrentHashMap<>();
+
+	// The tiles that are looked up all the time, such as the tiles drawn under others, resolved once the tile list is made.
+	public static Tile GRASS, DIRT, SAND, HOLE, WATER, LAVA, ROCK, CLOUD, FARMLAND;
 
 	// Standard tile explosion blacklist
 	// Tiles (as IDs) included cannot be damaged by explosions such as by TNTs and creepers.
@@ -32,96 +40,123 @@ public final class Tiles {
 
 	public static void initTileList() {
 		Logging.TILES.debug("Initializing tile list...");
-
-		tiles.put((short) 0, new GrassTile("Grass"));
-		tiles.put((short) 1, new DirtTile("Dirt"));
-		tiles.put((short) 2, new FlowerTile("Flower"));
-		tiles.put((short) 3, new HoleTile("Hole"));
-		tiles.put((short) 4, new StairsTile("Stairs Up", true));
-		tiles.put((short) 5, new StairsTile("Stairs Down", false));
-		tiles.put((short) 6, new WaterTile("Water"));
+		tiles = new Tile[256];
+		names = new HashMap<>();
+		requested.clear();
+
+		put(0, new GrassTile("Grass"));
+		put(1, new DirtTile("Dirt"));
+		put(2, new FlowerTile("Flower"));
+		put(3, new HoleTile("Hole"));
+		put(4, new StairsTile("Stairs Up", true));
+		put(5, new StairsTile("Stairs Down", false));
+		put(6, new WaterTile("Water"));
 		// This is out of order because of lava buckets
-		tiles.put((short) 17, new LavaTile("Lava"));
-
-		tiles.put((short) 7, new RockTile("Rock"));
-		tiles.put((short) 8, new TreeTile("Tree"));
-		tiles.put((short) 9, new SaplingTile("Tree Sapling", Tiles.get("Grass"), Tiles.get("Tree")));
-		tiles.put((short) 10, new SandTile("Sand"));
-		tiles.put((short) 11, new CactusTile("Cactus"));
-		tiles.put((short) 12, new SaplingTile("Cactus Sapling", Tiles.get("Sand"), Tiles.get("Cactus")));
-		tiles.put((short) 13, new OreTile(OreTile.OreType.Iron));
-		tiles.put((short) 14, new OreTile(OreTile.OreType.Gold));
-		tiles.put((short) 15, new OreTile(OreTile.OreType.Gem));
-		tiles.put((short) 16, new OreTile(OreTile.OreType.Lapis));
-
-		tiles.put((short) 18, new LavaBrickTile("Lava Brick"));
-		tiles.put((short) 19, new ExplodedTile("Explode"));
-		tiles.put((short) 20, new FarmTile("Farmland"));
-		tiles.put((short) 21, new WheatTile("Wheat"));
-		tiles.put((short) 22, new HardRockTile("Hard Rock"));
-		tiles.put((short) 23, new InfiniteFallTile("Infinite Fall"));
-		tiles.put((short) 24, new CloudTile("Cloud"));
-		tiles.put((short) 25, new OreTile(OreTile.OreType.Cloud));
-		tiles.put((short) 26, new DoorTile(Tile.Material.Wood));
-		tiles.put((short) 27, new DoorTile(Tile.Material.Stone));
-		tiles.put((short) 28, new DoorTile(Tile.Material.Obsidian));
-		tiles.put((short) 29, new FloorTile(Tile.Material.Wood));
-		tiles.put((short) 30, new FloorTile(Tile.Material.Stone));
-		tiles.put((short) 31, new FloorTile(Tile.Material.Obsidian));
-		tiles.put((short) 32, new WallTile(Tile.Material.Wood));
-		tiles.put((short) 33, new WallTile(Tile.Material.Stone));
-		tiles.put((short) 34, new WallTile(Tile.Material.Obsidian));
-		tiles.put((short) 35, new WoolTile(DyeItem.DyeColor.WHITE));
+		put(17, new LavaTile("Lava"));
+
+		put(7, new RockTile("Rock"));
+		put(8, new TreeTile("Tree"));
+		put(9, new SaplingTile("Tree Sapling", Tiles.get("Grass"), Tiles.get("Tree")));
+		put(10, new SandTile("Sand"));
+		put(11, new CactusTile("Cactus"));
+		put(12, new SaplingTile("Cactus Sapling", Tiles.get("Sand"), Tiles.get("Cactus")));
+		put(13, new OreTile(OreTile.OreType.Iron));
+		put(14, new OreTile(OreTile.OreType.Gold));
+		put(15, new OreTile(OreTile.OreType.Gem));
+		put(16, new OreTile(OreTile.OreType.Lapis));
+
+		put(18, new LavaBrickTile("Lava Brick"));
+		put(19, new ExplodedTile("Explode"));
+		put(20, new FarmTile("Farmland"));
+		put(21, new WheatTile("Wheat"));
+		put(22, new HardRockTile("Hard Rock"));
+		put(23, new InfiniteFallTile("Infinite Fall"));
+		put(24, new CloudTile("Cloud"));
+		put(25, new OreTile(OreTile.OreType.Cloud));
+		put(26, new DoorTile(Tile.Material.Wood));
+		put(27, new DoorTile(Tile.Material.Stone));
+		put(28, new DoorTile(Tile.Material.Obsidian));
+		put(29, new FloorTile(Tile.Material.Wood));
+		put(30, new FloorTile(Tile.Material.Stone));
+		put(31, new FloorTile(Tile.Material.Obsidian));
+		put(32, new WallTile(Tile.Material.Wood));
+		put(33, new WallTile(Tile.Material.Stone));
+		put(34, new WallTile(Tile.Material.Obsidian));
+		put(35, new WoolTile(DyeItem.DyeColor.WHITE));
 		// These are out of order because of the changes on wool and color system.
-		tiles.put((short) 37, new WoolTile(DyeItem.DyeColor.RED));
-		tiles.put((short) 38, new WoolTile(DyeItem.DyeColor.BLUE));
-		tiles.put((short) 39, new WoolTile(DyeItem.DyeColor.GREEN));
-		tiles.put((short) 40, new WoolTile(DyeItem.DyeColor.YELLOW));
-		tiles.put((short) 41, new WoolTile(DyeItem.DyeColor.BLACK));
-		tiles.put((short) 60, new WoolTile(DyeItem.DyeColor.BROWN));
-		tiles.put((short) 61, new WoolTile(DyeItem.DyeColor.PURPLE));
-		tiles.put((short) 62, new WoolTile(DyeItem.DyeColor.CYAN));
-		tiles.put((short) 63, new WoolTile(DyeItem.DyeColor.LIGHT_GRAY));
-		tiles.put((short) 64, new WoolTile(DyeItem.DyeColor.GRAY));
-		tiles.put((short) 65, new WoolTile(DyeItem.DyeColor.PINK));
-		tiles.put((short) 66, new WoolTile(DyeItem.DyeColor.LIME));
-		tiles.put((short) 67, new WoolTile(DyeItem.DyeColor.LIGHT_BLUE));
-		tiles.put((short) 68, new WoolTile(DyeItem.DyeColor.MAGENTA));
-		tiles.put((short) 69, new WoolTile(DyeItem.DyeColor.ORANGE));
-
-		tiles.put((short) 36, new PathTile("Path"));
-
-		tiles.put((short) 42, new PotatoTile("Potato"));
-		tiles.put((short) 43, new MaterialTile(Tile.Material.Stone));
-		tiles.put((short) 44, new MaterialTile(Tile.Material.Obsidian));
-		tiles.put((short) 45, new DecorTile(DecorTile.decorType.ORNATE_STONE));
-		tiles.put((short) 46, new DecorTile(DecorTile.decorType.ORNATE_OBSIDIAN));
-		tiles.put((short) 47, new BossWallTile());
-		tiles.put((short) 48, new BossFloorTile());
-		tiles.put((short) 49, new BossDoorTile());
-		tiles.put((short) 50, new TomatoTile("Tomato"));
-		tiles.put((short) 51, new CarrotTile("Carrot"));
-		tiles.put((short) 52, new HeavenlyBerriesTile("Heavenly Berries"));
-		tiles.put((short) 53, new HellishBerriesTile("Hellish Berries"));
-		tiles.put((short) 54, new FenceTile(Tile.Material.Wood));
-		tiles.put((short) 55, new FenceTile(Tile.Material.Stone));
-		tiles.put((short) 56, new FenceTile(Tile.Material.Obsidian));
-		tiles.put((short) 57, new TorchTile());
-		tiles.put((short) 58, new SignTile());
-		tiles.put((short) 59, new DecorTile(DecorTile.decorType.ORNATE_WOOD));
+		put(37, new WoolTile(DyeItem.DyeColor.RED));
+		put(38, new WoolTile(DyeItem.DyeColor.BLUE));
+		put(39, new WoolTile(DyeItem.DyeColor.GREEN));
+		put(40, new WoolTile(DyeItem.DyeColor.YELLOW));
+		put(41, new WoolTile(DyeItem.DyeColor.BLACK));
+		put(60, new WoolTile(DyeItem.DyeColor.BROWN));
+		put(61, new WoolTile(DyeItem.DyeColor.PURPLE));
+		put(62, new WoolTile(DyeItem.DyeColor.CYAN));
+		put(63, new WoolTile(DyeItem.DyeColor.LIGHT_GRAY));
+		put(64, new WoolTile(DyeItem.DyeColor.GRAY));
+		put(65, new WoolTile(DyeItem.DyeColor.PINK));
+		put(66, new WoolTile(DyeItem.DyeColor.LIME));
+		put(67, new WoolTile(DyeItem.DyeColor.LIGHT_BLUE));
+		put(68, new WoolTile(DyeItem.DyeColor.MAGENTA));
+		put(69, new WoolTile(DyeItem.DyeColor.ORANGE));
+
+		put(36, new PathTile("Path"));
+
+		put(42, new PotatoTile("Potato"));
+		put(43, new MaterialTile(Tile.Material.Stone));
+		put(44, new MaterialTile(Tile.Material.Obsidian));
+		put(45, new DecorTile(DecorTile.decorType.ORNATE_STONE));
+		put(46, new DecorTile(DecorTile.decorType.ORNATE_OBSIDIAN));
+		put(47, new BossWallTile());
+		put(48, new BossFloorTile());
+		put(49, new BossDoorTile());
+		put(50, new TomatoTile("Tomato"));
+		put(51, new CarrotTile("Carrot"));
+		put(52, new HeavenlyBerriesTile("Heavenly Berries"));
+		put(53, new HellishBerriesTile("Hellish Berries"));
+		put(54, new FenceTile(Tile.Material.Wood));
+		put(55, new FenceTile(Tile.Material.Stone));
+		put(56, new FenceTile(Tile.Material.Obsidian));
+		put(57, new TorchTile());
+		put(58, new SignTile());
+		put(59, new DecorTile(DecorTile.decorType.ORNATE_WOOD));
 
 		// WARNING: don't use this tile for anything!
-		tiles.put((short) 255, new ConnectTile());
+		put(255, new ConnectTile());
 
-		for (short i = 0; i < 256; i++) {
-			if (tiles.get(i) == null) continue;
-			tiles.get(i).id = (short) i;
+		for (short i = 0; i < tiles.length; i++) {
+			if (tiles[i] == null) continue;
+			tiles[i].id = i;
 		}
+
+		GRASS = get("Grass");
+		DIRT = get("Dirt");
+		SAND = get("Sand");
+		HOLE = get("Hole");
+		WATER = get("Water");
+		LAVA = get("Lava");
+		ROCK = get("Rock");
+		CLOUD = get("Cloud");
+		FARMLAND = get("Farmland");
 	}
 
+	private static void put(int id, Tile tile) {
+		if (id >= tiles.length) tiles = Arrays.copyOf(tiles, Math.max(id + 1, tiles.length * 2));
+		tiles[id] = tile;
+		// Where two tiles have the same name, the one with the lowest id is the one found by name.
+		Tile named = names.get(tile.name);
+		if (named == null || named == tile || idOf(named) > id) names.put(tile.name, tile);
+		requested.clear();
+	}
+
+	private static int idOf(Tile tile) {
+		for (int i = 0; i < tiles.length; i++)
+			if (tiles[i] == tile) return i;
+		return Integer.MAX_VALUE;
+	}
 
 	static void add(int id, Tile tile) {
-		tiles.put((short) id, tile);
+		put(id, tile);
 		Logging.TILES.debug("Adding " + tile.name + " to tile list with id " + id);
 		tile.id = (short) id;
 	}
@@ -232,52 +267,31 @@ public final class Tiles {
 		)));
 	}
 
-	private static int overflowCheck = 0;
-
 	public static Tile get(String name) {
-		//System.out.println("Getting from tile list: " + name);
-
-		name = name.toUpperCase();
-
-		overflowCheck++;
-
-		if (overflowCheck > 50) {
-			CrashHandler.crashHandle(new StackOverflowError("Tiles#get: " + name), new CrashHandler.ErrorInfo("Tile fetching Stacking",
-				CrashHandler.ErrorInfo.ErrorType.SERIOUS, "STACKOVERFLOW prevented in Tiles.get(), on: " + name));
-		}
-
-		//System.out.println("Fetching tile " + name);
-
-		Tile getting = null;
-
-		if (name.contains("_")) {
-			name = name.substring(0, name.indexOf("_"));
-		}
+		Tile getting = requested.get(name);
+		if (getting != null) return getting;
 
-		for (Tile t : tiles.values()) {
-			if (t == null) continue;
-			if (t.name.equals(name)) {
-				getting = t;
-				break;
-			}
+		String key = name.toUpperCase();
+		if (key.contains("_")) {
+			key = key.substring(0, key.indexOf("_"));
 		}
 
+		getting = names.get(key);
 		if (getting == null) {
-			Logging.TILES.info("Invalid tile requested: " + name);
-			getting = tiles.get((short) 0);
+			Logging.TILES.info("Invalid tile requested: " + key);
+			return tiles[0];
 		}
 
-		overflowCheck = 0;
+		requested.put(name, getting);
 		return getting;
 	}
 
 	public static Tile get(short id) {
-		//System.out.println("Requesting tile by id: " + id);
-		if (tiles.get(id) != null) {
-			return tiles.get(id);
+		if (id >= 0 && id < tiles.length && tiles[id] != null) {
+			return tiles[id];
 		} else {
 			Logging.TILES.info("Unknown tile id requested: " + id);
-			return tiles.get((short) 0);
+			return tiles[0];
 		}
 	}
 
@@ -291,6 +305,9 @@ public final class Tiles {
 	}
 
 	public static HashMap<Short, Tile> getAll() {
-		return new HashMap<>(tiles);
+		HashMap<Short, Tile> all = new HashMap<>();
+		for (short i = 0; i < tiles.length; i++)
+			if (tiles[i] != null) all.put(i, tiles[i]);
+		return all;
 	}
 }
@@ -66,7 +66,7 @@ public class TreeTile extends Tile {
 
 	@SuppressWarnings("PointlessArithmeticExpression")
 	public void render(Screen screen, Level level, int x, int y) {
-		Tiles.get("Grass").render(screen, level, x, y);
+		Tiles.GRASS.render(screen, level, x, y);
 
 		TreeType thisType = level.getTreeType(x, y);
 		// Checking whether the target direction has targeted the same TreeTile
@@ -161,7 +161,7 @@ public class TreeTile extends Tile {
 		if (damage >= treeHealth) {
 			level.dropItem(x * 16 + 8, y * 16 + 8, 1, 3, Items.get("Wood"));
 			level.dropItem(x * 16 + 8, y * 16 + 8, 0, 2, Items.get("Acorn"));
-			level.setTile(x, y, Tiles.get("Grass"));
+			level.setTile(x, y, Tiles.GRASS);
 			AchievementsDisplay.setAchievement("minicraft.achievement.woodcutter", true);
 		} else {
 			level.setData(x, y, damage);
@@ -21,7 +21,7 @@ public class CarrotTile extends CropTile {
 	@Override
 	public void render(Screen screen, Level level, int x, int y) {
 		int age = (level.getData(x, y) >> 3) & maxAge;
-		Tiles.get("Farmland").render(screen, level, x, y);
+		Tiles.FARMLAND.render(screen, level, x, y);
 		int stage = (int) ((float) age / maxAge * 3);
 		screen.render(x * 16, y * 16, spritStages[stage]);
 	}
@@ -23,6 +23,7 @@ public class CropTile extends FarmTile {
 	protected final @Nullable String seed;
 
 	protected int maxAge = 0b111; // Must be a bit mask.
+	private static final int GROWTH_TICKS = 50; // Crops are updated this often, about as often as random ticks used to land on them
 
 	protected CropTile(String name, @Nullable String seed) {
 		super(name, null);
@@ -35,8 +36,30 @@ public class CropTile extends FarmTile {
 		return true;
 	}
 
+	@Override
+	public void onTileSet(Level level, int x, int y) {
+		level.scheduleTileTick(x, y, GROWTH_TICKS);
+	}
+
+	@Override
+	public void scheduledTick(Level level, int xt, int yt) {
+		grow(level, xt, yt);
+		level.scheduleTileTick(xt, yt, GROWTH_TICKS);
+	}
+
 	@Override
 	public boolean tick(Level level, int xt, int yt) {
+		// Crops planted without onTileSet being called still need to be scheduled
+		if (!level.isTileTickScheduled(xt, yt))
+			onTileSet(level, xt, yt);
+		return false;
+	}
+
+	/**
+	 * Updates the moisture, growth stage and fertilization of the crop.
+	 * @return If anything changed.
+	 */
+	protected boolean grow(Level level, int xt, int yt) {
 		int data = level.getData(xt, yt);
 		int moisture = data & 0b111;
 		boolean successful = false;
@@ -153,7 +176,7 @@ public class CropTile extends FarmTile {
 		// Play sound.
 		Sound.play("monsterhurt");
 
-		level.setTile(x, y, Tiles.get("farmland"), data & 0b111);
+		level.setTile(x, y, Tiles.FARMLAND, data & 0b111);
 	}
 
 	public int getFertilization(int data) {
@@ -36,7 +36,7 @@ public class FarmTile extends Tile {
 			if (tool.type == ToolType.Shovel) {
 				if (player.payStamina(4 - tool.level) && tool.payDurability()) {
 					int data = level.getData(xt, yt);
-					level.setTile(xt, yt, Tiles.get("Dirt"));
+					level.setTile(xt, yt, Tiles.DIRT);
 					Sound.play("monsterhurt");
 					AdvancementElement.AdvancementTrigger.ItemUsedOnTileTrigger.INSTANCE.trigger(
 						new AdvancementElement.AdvancementTrigger.ItemUsedOnTileTrigger.ItemUsedOnTileTriggerConditionHandler.ItemUsedOnTileTriggerConditions(
@@ -60,7 +60,7 @@ public class FarmTile extends Tile {
 			level.setData(xt, yt, moisture - 1);
 			return true;
 		} else if (moisture == 0 && random.nextInt(10) == 0) {
-			level.setTile(xt, yt, Tiles.get("dirt"));
+			level.setTile(xt, yt, Tiles.DIRT);
 			return true;
 		}
 
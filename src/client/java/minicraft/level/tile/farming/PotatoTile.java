@@ -23,7 +23,7 @@ public class PotatoTile extends CropTile {
 	@Override
 	public void render(Screen screen, Level level, int x, int y) {
 		int age = (level.getData(x, y) >> 3) & maxAge;
-		Tiles.get("Farmland").render(screen, level, x, y);
+		Tiles.FARMLAND.render(screen, level, x, y);
 		int stage = (int) ((float) age / maxAge * 5);
 		screen.render(x << 4, y << 4, spritStages[stage]);
 	}
@@ -0,0 +1,130 @@
+package minicraft.saveload;
+
+import minicraft.level.ChunkManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+
+/**
+ * Holds the chunks unloaded from a level in a spill folder inside the level's world folder.
+ * Each chunk is kept in its own file, as a region file chunk payload, so that a save can simply copy
+ * it into place, while a world quit without saving is left untouched.
+ * Chunks that were never unloaded are read from the region files of the world save instead,
+ * which is where chunks that weren't read yet since the world was loaded come from.
+ * Region files are mapped once and decoded from the mapping; the save rewrites them through {@link #writeRegion},
+ * which releases the mapping first.
+ */
+public class ChunkSpill implements ChunkManager.ChunkStore {
+	private static final String SPILL_FOLDER = "spill";
+
+	private static final Object lock = new Object(); // Keeps a background save from reading a chunk while it is being spilled again
+	// The region files opened for reading chunks, by path; each is closed before a save replaces its file. Guarded by the lock.
+	private static final HashMap<String, RegionFile.Reader> readers = new HashMap<>();
+
+	private final String levelFolder;
+	private final String folder;
+
+	/**
+	 * @param levelFolder The folder the level is saved in, ending with a slash.
+	 */
+	public ChunkSpill(String levelFolder) {
+		this.levelFolder = levelFolder;
+		folder = levelFolder + SPILL_FOLDER + "/";
+
+		// Anything left here is from an earlier session, and was either saved or thrown away already.
+		File dir = new File(folder);
+		File[] stale = dir.listFiles();
+		if (stale != null)
+			for (File file : stale)
+				file.delete();
+		dir.mkdirs();
+	}
+
+	private static String fileName(int chunkX, int chunkY) {
+		return "c." + chunkX + "." + chunkY + ".chunk";
+	}
+
+	@Override
+	public void write(int chunkX, int chunkY, short[] ids, short[] data) throws IOException {
+		byte[] payload = RegionFile.encodeChunk(ids, data);
+		synchronized (lock) {
+			Files.write(Paths.get(folder, fileName(chunkX, chunkY)), payload);
+		}
+	}
+
+	@Override
+	public void read(int chunkX, int chunkY, short[] ids, short[] data) throws IOException {
+		synchronized (lock) {
+			Path spilled = Paths.get(folder, fileName(chunkX, chunkY));
+			if (Files.exists(spilled)) {
+				RegionFile.decodeChunk(ByteBuffer.wrap(Files.readAllBytes(spilled)), ids, data);
+				return;
+			}
+
+			RegionFile.Reader reader = reader(levelFolder, chunkX, chunkY);
+			if (reader == null || !reader.readChunk(chunkX, chunkY, ids, data))
+				throw new IOException("Chunk (" + chunkX + ", " + chunkY + ") is neither unloaded nor saved.");
+		}
+	}
+
+	/**
+	 * Reads the region file payload of an unloaded chunk from the spill folder,
+	 * or from the world save if it was never unloaded since the world was loaded.
+	 * @param levelFolder The folder the level is saved in, ending with a slash.
+	 */
+	public static byte[] readPayload(String levelFolder, int chunkX, int chunkY) throws IOException {
+		synchronized (lock) {
+			Path spilled = Paths.get(levelFolder, SPILL_FOLDER, fileName(chunkX, chunkY));
+			if (Files.exists(spilled))
+				return Files.readAllBytes(spilled);
+
+			RegionFile.Reader reader = reader(levelFolder, chunkX, chunkY);
+			byte[] payload = reader == null ? null : reader.readPayload(chunkX, chunkY);
+			if (payload == null) throw new IOException("Chunk (" + chunkX + ", " + chunkY + ") is neither unloaded nor saved.");
+			return payload;
+		}
+	}
+
+	/**
+	 * The reader of the region file of the given chunk, which is opened the first time it is needed; must be called holding the lock.
+	 * @return Null if the level has no such region file.
+	 */
+	private static RegionFile.Reader reader(String levelFolder, int chunkX, int chunkY) throws IOException {
+		File region = new File(levelFolder + RegionFile.fileName(RegionFile.regionOf(chunkX), RegionFile.regionOf(chunkY)));
+		RegionFile.Reader reader = readers.get(region.getPath());
+		if (reader == null && region.exists()) {
+			reader = new RegionFile.Reader(region);
+			readers.put(region.getPath(), reader);
+		}
+		return reader;
+	}
+
+	/**
+	 * Writes a region file of a save, closing its reader first so that the old file can be replaced.
+	 * @param chunks The chunk payloads, uncompressed, indexed by {@link RegionFile#indexOf(int, int)}; null where the region has no such chunk.
+	 */
+	public static void writeRegion(File file, byte[][] chunks, SaveCompression compression) throws IOException {
+		File temp = RegionFile.writeTemp(file, chunks, compression);
+		synchronized (lock) {
+			RegionFile.Reader reader = readers.remove(file.getPath());
+			if (reader != null) reader.close();
+			RegionFile.replace(temp, file);
+		}
+	}
+
+	/**
+	 * Closes the readers of every region file, as when a world is left, so that the files aren't kept open.
+	 */
+	public static void closeRegions() {
+		synchronized (lock) {
+			for (RegionFile.Reader reader : readers.values())
+				reader.close();
+			readers.clear();
+		}
+	}
+}
@@ -226,12 +226,13 @@ public class LegacyLoad {
 			Settings.set("size", lvlw);
 
 			ChunkManager map = new ChunkManager();
+			TilePalette palette = new TilePalette(worldVer);
 
       for (int x = 0; x < lvlw - 1; x++) {
 				for (int y = 0; y < lvlh - 1; y++) {
 					int tileArrIdx = y + x * lvlw;
 					int tileidx = y + x * lvlh; // The tiles are saved with x outer loop, and y inner loop, meaning that the list reads down, then right one, rather than right, then down one.
-					Load.loadTile(worldVer, map, x, y, Tiles.oldids.get(Integer.parseInt(data.get(tileidx + 3))),
+					palette.setTile(map, x, y, Tiles.oldids.get(Integer.parseInt(data.get(tileidx + 3))),
 						extradata.get(tileidx));
 				}
 			}
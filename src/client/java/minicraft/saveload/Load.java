@@ -52,6 +52,7 @@ import minicraft.item.Recipe;
 import minicraft.item.StackableItem;
 import minicraft.level.ChunkManager;
 import minicraft.level.Level;
+import minicraft.level.tile.Tile;
 import minicraft.level.tile.Tiles;
 import minicraft.network.Network;
 import minicraft.screen.AchievementsDisplay;
@@ -76,7 +77,6 @@ import org.json.JSONObject;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -84,6 +84,7 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.AbstractMap;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -91,11 +92,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.Stack;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.function.Predicate;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class Load {
@@ -103,6 +104,7 @@ public class Load {
 	private String location = Game.gameDir;
 
 	private static final String extension = Save.extension;
+	public static int loadThreads = Runtime.getRuntime().availableProcessors(); // Threads chunks are decoded on as a world is loaded; set by --load-threads
 	private float percentInc;
 
 	private ArrayList<String> data;
@@ -124,6 +126,7 @@ public class Load {
 	}
 
 	public Load(String worldname, boolean loadGame) {
+		Save.awaitBackgroundSave(); // The last autosave may still be writing this world
 		loadFromFile(location + "/saves/" + worldname + "/Game" + extension);
 		if (data.get(0).contains(".")) worldVer = new Version(data.get(0));
 		if (worldVer == null) worldVer = new Version("1.8");
@@ -233,6 +236,15 @@ public class Load {
 			loadInventory("Inventory", Game.player.getInventory());
 			loadPlayer("Player", Game.player);
 
+			// The rest of the chunks are read as they are needed, but those around the player are needed right away.
+			Level playerLevel = Game.player.getLevel();
+			if (playerLevel != null) {
+				int playerChunkX = Math.floorDiv(Game.player.x >> 4, ChunkManager.CHUNK_SIZE), playerChunkY = Math.floorDiv(Game.player.y >> 4, ChunkManager.CHUNK_SIZE);
+				for (int x = playerChunkX - 1; x <= playerChunkX + 1; x++)
+					for (int y = playerChunkY - 1; y <= playerChunkY + 1; y++)
+						playerLevel.chunkManager.ensureResident(x, y);
+			}
+
 			if (deathChest != null && deathChest.getInventory().invSize() > 0) {
 				Game.player.getLevel().add(deathChest, Game.player.x, Game.player.y);
 				Logging.SAVELOAD.debug("Added DeathChest which contains exceed items.");
@@ -384,19 +396,15 @@ public class Load {
 		data.clear();
 		extradata.clear();
 
-		String total;
 		try {
-			total = loadFromFile(filename, true);
-			if (total.length() > 0) { // Safe splitting with JSON styled element.
-				data.addAll(splitUnwrappedCommas(total));
-			}
+			SaveTokenizer.readAll(filename, data);
 		} catch (IOException ex) {
 			ex.printStackTrace();
 		}
 
 		if (filename.contains("Level")) {
 			try {
-				total = Load.loadFromFile(filename.substring(0, filename.lastIndexOf("/") + 7) + "data" + extension, true);
+				String total = Load.loadFromFile(filename.substring(0, filename.lastIndexOf("/") + 7) + "data" + extension, true);
 				extradata.addAll(Arrays.asList(total.split(",")));
 			} catch (IOException ex) {
 				ex.printStackTrace();
@@ -409,12 +417,8 @@ public class Load {
 	private void loadFromFile(String filename, List<String> data) {
 		data.clear();
 
-		String total;
 		try {
-			total = loadFromFile(filename, true);
-			if (total.length() > 0) { // Safe splitting with JSON styled element.
-				data.addAll(splitUnwrappedCommas(total));
-			}
+			SaveTokenizer.readAll(filename, data);
 		} catch (IOException ex) {
 			ex.printStackTrace();
 		}
@@ -422,69 +426,10 @@ public class Load {
 		LoadingDisplay.progress(percentInc);
 	}
 
-	/**
-	 * Source: Note: This method is copied from MiniMods.
-	 */
-	private static ArrayList<String> splitUnwrappedCommas(String input) {
-		ArrayList<String> out = new ArrayList<>();
-		int lastIdx = 0;
-		// 0 {}; 1 []; 2 ()
-		Stack<Integer> bracketCounter = new Stack<>();
-		char openBracket0 = '{';
-		char openBracket1 = '[';
-		char openBracket2 = '(';
-		char closeBracket0 = '}';
-		char closeBracket1 = ']';
-		char closeBracket2 = ')';
-		char commaChar = ',';
-		Predicate<Integer> checkDiff = ch -> {
-			if (bracketCounter.isEmpty()) return true;
-			return !bracketCounter.peek().equals(ch);
-		};
-
-		for (int i = 0; i < input.length(); i++) {
-			char ch = input.charAt(i);
-			if (ch == commaChar && bracketCounter.isEmpty()) {
-				String str = input.substring(lastIdx + (input.charAt(lastIdx) == commaChar ? 1 : 0), i).trim();
-				lastIdx = i;
-				out.add(str); // Empty strings are expected.
-			} else if (ch == openBracket0) {
-				bracketCounter.push(0);
-			} else if (ch == closeBracket0) {
-				if (checkDiff.test(0))
-					throw new RuntimeException(String.format("Invalid closing char %s index %s. Input: \"%s\"", ch, i, input));
-				bracketCounter.pop();
-			} else if (ch == openBracket1) {
-				bracketCounter.push(1);
-			} else if (ch == closeBracket1) {
-				if (checkDiff.test(1))
-					throw new RuntimeException(String.format("Invalid closing char %s index %s. Input: \"%s\"", ch, i, input));
-				bracketCounter.pop();
-			} else if (ch == openBracket2) {
-				bracketCounter.push(2);
-			} else if (ch == closeBracket2) {
-				if (checkDiff.test(2))
-					throw new RuntimeException(String.format("Invalid closing char %s index %s. Input: \"%s\"", ch, i, input));
-				bracketCounter.pop();
-			}
-		}
-
-		String str = input.substring(lastIdx).trim();
-		if (!str.isEmpty() && !str.chars().allMatch(Character::isWhitespace) &&
-			!(str.length() == 1 && str.charAt(0) == commaChar)) {
-			out.add(str);
-		}
-
-		if (bracketCounter.size() > 0)
-			throw new RuntimeException(String.format("Bracket not closed. Input: \"%s\"", input));
-
-		return out;
-	}
-
 	public static String loadFromFile(String filename, boolean isWorldSave) throws IOException {
 		StringBuilder total = new StringBuilder();
 
-		try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
+		try (BufferedReader br = new BufferedReader(new InputStreamReader(SaveCompression.open(filename)))) {
 			String curLine;
 			while ((curLine = br.readLine()) != null)
 				total.append(curLine).append(isWorldSave ? "" : "\n");
@@ -534,6 +479,8 @@ public class Load {
 		if (worldVer.compareTo(new Version("2.2.0-dev1")) >= 0) {
 			Settings.set("quests", Boolean.parseBoolean(data.remove(0)));
 			Settings.set("tutorials", Boolean.parseBoolean(data.remove(0)));
+			if (data.size() >= 2) // After whether the Obsidian Knight was beaten
+				Logging.SAVELOAD.debug("World was saved with {} compression.", data.get(1));
 		}
 	}
 
@@ -739,13 +686,16 @@ public class Load {
 			Settings.set("size", lvlw);
 
 			ChunkManager map = new ChunkManager();
+			TilePalette palette = new TilePalette(worldVer);
+			boolean tileIds = worldVer.compareTo(new Version("1.9.4-dev6")) < 0; // Tiles were saved as id numbers, not names
+			boolean oldWool = worldVer.compareTo(new Version("2.0.6-dev4")) < 0, oldWoolName = worldVer.compareTo(new Version("2.3.0-dev1")) < 0;
 
 			for (int x = 0; x < lvlw; x++) {
 				for (int y = 0; y < lvlh; y++) {
 					int tileArrIdx = y + x * lvlw;
 					int tileidx = y + x * lvlh; // the tiles are saved with x outer loop, and y inner loop, meaning that the list reads down, then right one, rather than right, then down one.
 					String tilename = data.get(tileidx + (hasSeed ? 4 : 3));
-					if (worldVer.compareTo(new Version("1.9.4-dev6")) < 0) {
+					if (tileIds) {
 						int tileID = Integer.parseInt(tilename); // they were id numbers, not names, at this point
 						if (Tiles.oldids.get(tileID) != null)
 							tilename = Tiles.oldids.get(tileID);
@@ -756,7 +706,7 @@ public class Load {
 					}
 
 					if (tilename.equalsIgnoreCase("Wool")) {
-						if (worldVer.compareTo(new Version("2.0.6-dev4")) < 0) {
+						if (oldWool) {
 							switch (Integer.parseInt(extradata.get(tileidx))) {
 								case 1:
 									tilename = "Red Wool";
@@ -776,7 +726,7 @@ public class Load {
 								default:
 									tilename = "White Wool";
 							}
-						} else if (worldVer.compareTo(new Version("2.3.0-dev1")) < 0) {
+						} else if (oldWoolName) {
 							tilename = "White Wool";
 						}
 					} else if (l == World.minLevelDepth + 1 && tilename.equalsIgnoreCase("Lapis") && worldVer.compareTo(new Version("2.0.3-dev6")) < 0) {
@@ -796,7 +746,7 @@ public class Load {
 					}
 
 					// Tiles are read in an ord
-					loadTile(worldVer, map, x, y, tilename, extradata.get(tileidx));
+					palette.setTile(map, x, y, tilename, extradata.get(tileidx));
 				}
 			}
 
@@ -901,14 +851,28 @@ public class Load {
 	private void loadWorldInf(String filename) {
 		loadFromFile(location + "/Game" + extension, extradata);
 		long seed = Long.parseLong(extradata.get(1));
+		// Chunks that have to be read as the world is loaded are decoded on several threads at once, each into arrays of its own.
+		ExecutorService decoders = Executors.newFixedThreadPool(Math.max(1, loadThreads), r -> {
+			Thread thread = new Thread(r, "Chunk Decoder");
+			thread.setDaemon(true);
+			return thread;
+		});
+		List<TextChunk> textChunks = new ArrayList<>();
+		Version version = worldVer;
 		for (int l = World.maxLevelDepth; l >= World.minLevelDepth; l--) {
 			LoadingDisplay.setMessage(Level.getDepthString(l), false);
 			int lvlidx = World.lvlIdx(l);
-			loadFromFile(location + filename + lvlidx + "/index" + extension, data);
-
 			Set<Point> chunks = new HashSet<>();
-			while(data.size() >= 2)
-				chunks.add(new Point(Integer.parseInt(data.remove(0)), Integer.parseInt(data.remove(0))));
+			try (SaveTokenizer index = new SaveTokenizer(location + filename + lvlidx + "/index" + extension)) {
+				while (index.hasNext()) {
+					int x = index.nextInt();
+					if (!index.hasNext()) break;
+					chunks.add(new Point(x, index.nextInt()));
+				}
+			} catch (IOException e) {
+				Logging.SAVELOAD.error(e, "Unable to read the chunk index of level {}.", l);
+			}
+			LoadingDisplay.progress(percentInc);
 
 			ChunkManager map = new ChunkManager();
 			Level parent = World.levels[World.lvlIdx(l + 1)];
@@ -916,37 +880,66 @@ public class Load {
 
 			Level curLevel = World.levels[lvlidx];
 			curLevel.chunkManager = map;
+			String levelFolder = location + filename + lvlidx + "/";
+			// Chunks in region files are only read the first time they are needed, which is when they are loaded in full.
+			map.setStore(new ChunkSpill(levelFolder));
+			map.setLoadListener((chunkX, chunkY) -> loadChunk(curLevel, parent, levelFolder, chunkX, chunkY));
+			// The chunks each region file has, going by its offset table; null where there is no region file, or it can't be read.
+			HashMap<Point, boolean[]> regions = new HashMap<>();
 			for(Point c : chunks) {
-				loadFromFile(location + filename + lvlidx + "/t." + c.x + "." + c.y + extension, data);
-				loadFromFile(location + filename + lvlidx + "/d." + c.x + "." + c.y + extension, extradata);
-				for(int x = 0; x < ChunkManager.CHUNK_SIZE; x++) {
-					for(int y = 0; y < ChunkManager.CHUNK_SIZE; y++) {
-						int tileidx = y + x * ChunkManager.CHUNK_SIZE; // the tiles are saved with x outer loop, and y inner loop, meaning that the list reads down, then right one, rather than right, then down one.
-						int tX = x + c.x * ChunkManager.CHUNK_SIZE, tY = y + c.y * ChunkManager.CHUNK_SIZE;
-						loadTile(worldVer, map, tX, tY, data.get(tileidx), extradata.get(tileidx));
-						map.getTile(tX, tY).onTileSet(curLevel, tX, tY);
+				Point region = new Point(RegionFile.regionOf(c.x), RegionFile.regionOf(c.y));
+				if (!regions.containsKey(region)) {
+					File regionFile = new File(levelFolder + RegionFile.fileName(region.x, region.y));
+					boolean[] saved = null;
+					if (regionFile.exists()) {
+						try {
+							saved = RegionFile.savedChunks(regionFile);
+						} catch (IOException e) {
+							Logging.SAVELOAD.error(e, "Unable to read region file {}; trying the old format for its chunks.", regionFile);
+						}
 					}
+					regions.put(region, saved);
 				}
-				map.setChunkStage(c.x, c.y, ChunkManager.CHUNK_STAGE_DONE);
-			}
 
-			if (Logging.logLevel) curLevel.printTileLocs(Tiles.get("Stairs Down"));
-
-			if (parent == null) continue;
-			/// confirm that there are stairs in all the places that should have stairs.
-			// if there isn't, mark the chunk as needing stairs
-			for (minicraft.gfx.Point p : parent.getMatchingTiles(Tiles.get("Stairs Down"))) {
-				if (curLevel.getTile(p.x, p.y) != Tiles.get("Stairs Up")) {
-					curLevel.chunkManager.setChunkStage(p.x / ChunkManager.CHUNK_SIZE, p.y / ChunkManager.CHUNK_SIZE, ChunkManager.CHUNK_STAGE_UNFINISHED_STAIRS);
+				boolean[] saved = regions.get(region);
+				if (saved != null && saved[RegionFile.indexOf(c.x, c.y)]) {
+					map.addSavedChunk(c.x, c.y);
+					continue;
 				}
+
+				// Saved in the old format, with two text files per chunk, which the next save moves to a region file
+				TextChunk chunk = new TextChunk(curLevel, parent, levelFolder, c.x, c.y);
+				chunk.task = decoders.submit(() -> chunk.read(version));
+				textChunks.add(chunk);
 			}
-			for (minicraft.gfx.Point p : curLevel.getMatchingTiles(Tiles.get("Stairs Up"))) {
-				if (parent.getTile(p.x, p.y) != Tiles.get("Stairs Down")) {
-					parent.chunkManager.setChunkStage(p.x / ChunkManager.CHUNK_SIZE, p.y / ChunkManager.CHUNK_SIZE, ChunkManager.CHUNK_STAGE_UNFINISHED_STAIRS);
+		}
+
+		// Installed level by level, top down, since the stairs check of each chunk looks at the level above.
+		// A chunk that can't be read fails the load: leaving it out would have the next save drop it from the index,
+		// and the area be generated again over the player's changes.
+		try {
+			for (TextChunk chunk : textChunks) {
+				try {
+					chunk.task.get();
+				} catch (ExecutionException e) {
+					throw new RuntimeException(String.format("Unable to read chunk (%d, %d) of level %d.", chunk.x, chunk.y, chunk.level.depth), e.getCause());
+				} catch (InterruptedException e) {
+					throw new RuntimeException(new InterruptedException("World loading interrupted."));
 				}
+				ChunkManager map = chunk.level.chunkManager;
+				map.setChunkTiles(chunk.x, chunk.y, chunk.ids, chunk.data);
+				map.setChunkStage(chunk.x, chunk.y, ChunkManager.CHUNK_STAGE_DONE);
+				loadChunk(chunk.level, chunk.parent, chunk.levelFolder, chunk.x, chunk.y);
+				LoadingDisplay.progress(percentInc / textChunks.size());
 			}
+		} finally {
+			decoders.shutdownNow();
 		}
 
+		if (Logging.logLevel)
+			for (Level level : World.levels)
+				level.printTileLocs(Tiles.get("Stairs Down"));
+
 		LoadingDisplay.setMessage("minicraft.displays.loading.message.quests");
 
 		if (new File(location + "Quests.json").exists()) {
@@ -1011,18 +1004,81 @@ public class Load {
 		}
 	}
 
-	private static final Pattern OLD_TORCH_TILE_REGEX = Pattern.compile("TORCH ([\\w ]+)");
+	/**
+	 * A chunk saved in the old format, with two text files per chunk, which is read on a chunk decoder thread.
+	 */
+	private static class TextChunk {
+		private final Level level;
+		@Nullable
+		private final Level parent;
+		private final String levelFolder;
+		private final int x, y;
+		private final short[] ids = new short[ChunkManager.CHUNK_SIZE * ChunkManager.CHUNK_SIZE];
+		private final short[] data = new short[ChunkManager.CHUNK_SIZE * ChunkManager.CHUNK_SIZE];
+		private Future<?> task;
+
+		private TextChunk(Level level, @Nullable Level parent, String levelFolder, int x, int y) {
+			this.level = level;
+			this.parent = parent;
+			this.levelFolder = levelFolder;
+			this.x = x;
+			this.y = y;
+		}
+
+		/**
+		 * Reads the chunk into its arrays, through a ChunkManager of its own, touching nothing that is shared.
+		 */
+		private Void read(Version worldVer) throws IOException {
+			List<String> tiles = SaveTokenizer.readAll(levelFolder + "t." + x + "." + y + extension);
+			List<String> tileData = SaveTokenizer.readAll(levelFolder + "d." + x + "." + y + extension);
+			ChunkManager detached = new ChunkManager();
+			TilePalette palette = new TilePalette(worldVer);
+			for(int xx = 0; xx < ChunkManager.CHUNK_SIZE; xx++) {
+				for(int yy = 0; yy < ChunkManager.CHUNK_SIZE; yy++) {
+					int tileidx = yy + xx * ChunkManager.CHUNK_SIZE; // the tiles are saved with x outer loop, and y inner loop, meaning that the list reads down, then right one, rather than right, then down one.
+					int tX = xx + x * ChunkManager.CHUNK_SIZE, tY = yy + y * ChunkManager.CHUNK_SIZE;
+					palette.setTile(detached, tX, tY, tiles.get(tileidx), tileData.get(tileidx));
+				}
+			}
+			detached.copyChunk(x, y, ids, data);
+			return null;
+		}
+	}
 
-	public static void loadTile(Version worldVer, ChunkManager map, int x, int y, String tileName, String tileData) {
-		Matcher matcher;
-		if ((matcher = OLD_TORCH_TILE_REGEX.matcher(tileName.toUpperCase())).matches()) {
-			map.setTile(x, y, Tiles.get("Torch"), Tiles.get(matcher.group(1)).id);
-		} else {
-			short data = 0;
-			if (worldVer.compareTo(new Version("2.3.0-dev1")) > 0 || !tileName.equalsIgnoreCase("FLOWER"))
-				data = Short.parseShort(tileData);
-			map.setTile(x, y, Tiles.get(tileName), data);
+	/**
+	 * Finishes loading a chunk of a level: its tiles are set up, the tile ticks saved with it are scheduled,
+	 * and it is marked as needing stairs if its stairs don't match up with the level above.
+	 * For chunks in region files, this happens when the chunk is first read, rather than as the world is loaded.
+	 * @param levelFolder The folder the level is saved in, ending with a slash.
+	 */
+	private static void loadChunk(Level level, @Nullable Level parent, String levelFolder, int chunkX, int chunkY) {
+		int S = ChunkManager.CHUNK_SIZE;
+		for (int x = chunkX * S; x < chunkX * S + S; x++)
+			for (int y = chunkY * S; y < chunkY * S + S; y++)
+				level.getTile(x, y).onTileSet(level, x, y);
+
+		// Saved tile ticks replace the ones the tiles just scheduled for themselves
+		File ticksFile = new File(levelFolder + "s." + chunkX + "." + chunkY + extension);
+		if (ticksFile.exists()) {
+			try {
+				String[] ticks = loadFromFile(ticksFile.getPath(), true).split(",");
+				for (int i = 0; i + 2 < ticks.length; i += 3)
+					level.scheduleTileTick(Integer.parseInt(ticks[i].trim()), Integer.parseInt(ticks[i + 1].trim()), Integer.parseInt(ticks[i + 2].trim()));
+			} catch (IOException | NumberFormatException e) {
+				Logging.SAVELOAD.error(e, "Unable to load the tile ticks of chunk ({}, {}) of level {}.", chunkX, chunkY, level.depth);
+			}
 		}
+
+		/// confirm that there are stairs in all the places that should have stairs.
+		// if there isn't, mark the chunk as needing stairs, which Level.loadChunk fixes on both levels
+		if (parent == null || parent.chunkManager.getChunkStage(chunkX, chunkY) < ChunkManager.CHUNK_STAGE_UNFINISHED_STAIRS) return;
+		Tile stairsDown = Tiles.get("Stairs Down"), stairsUp = Tiles.get("Stairs Up");
+		for (int x = chunkX * S; x < chunkX * S + S; x++)
+			for (int y = chunkY * S; y < chunkY * S + S; y++)
+				if ((parent.getTile(x, y) == stairsDown) != (level.getTile(x, y) == stairsUp)) {
+					level.chunkManager.setChunkStage(chunkX, chunkY, ChunkManager.CHUNK_STAGE_UNFINISHED_STAIRS);
+					return;
+				}
 	}
 
 	public void loadPlayer(String filename, Player player) {
@@ -1032,37 +1088,37 @@ public class Load {
 	}
 
 	public void loadPlayer(Player player, List<String> origData) {
-		List<String> data = new ArrayList<>(origData);
-		player.x = Integer.parseInt(data.remove(0));
-		player.y = Integer.parseInt(data.remove(0));
-		player.spawnx = Integer.parseInt(data.remove(0));
-		player.spawny = Integer.parseInt(data.remove(0));
-		player.health = Integer.parseInt(data.remove(0));
+		ArrayDeque<String> data = new ArrayDeque<>(origData); // Taken from both ends
+		player.x = Integer.parseInt(data.removeFirst());
+		player.y = Integer.parseInt(data.removeFirst());
+		player.spawnx = Integer.parseInt(data.removeFirst());
+		player.spawny = Integer.parseInt(data.removeFirst());
+		player.health = Integer.parseInt(data.removeFirst());
 		if (worldVer.compareTo(new Version("2.2.0-dev3")) >= 0)
-			player.extraHealth = Integer.parseInt(data.remove(0));
+			player.extraHealth = Integer.parseInt(data.removeFirst());
 		if (worldVer.compareTo(new Version("2.0.4-dev7")) >= 0)
-			player.hunger = Integer.parseInt(data.remove(0));
-		player.armor = Integer.parseInt(data.remove(0));
+			player.hunger = Integer.parseInt(data.removeFirst());
+		player.armor = Integer.parseInt(data.removeFirst());
 
 		if (worldVer.compareTo(new Version("2.0.5-dev5")) >= 0 || player.armor > 0 || worldVer.compareTo(new Version("2.0.5-dev4")) == 0 && data.size() > 5) {
 			if (worldVer.compareTo(new Version("2.0.4-dev7")) < 0) {
 				// Reverse order b/c we are taking from the end
-				player.curArmor = (ArmorItem) Items.get(data.remove(data.size() - 1));
-				player.armorDamageBuffer = Integer.parseInt(data.remove(data.size() - 1));
+				player.curArmor = (ArmorItem) Items.get(data.removeLast());
+				player.armorDamageBuffer = Integer.parseInt(data.removeLast());
 			} else {
-				player.armorDamageBuffer = Integer.parseInt(data.remove(0));
-				player.curArmor = (ArmorItem) Items.get(data.remove(0), true);
+				player.armorDamageBuffer = Integer.parseInt(data.removeFirst());
+				player.curArmor = (ArmorItem) Items.get(data.removeFirst(), true);
 			}
 		}
-		player.setScore(Integer.parseInt(data.remove(0)));
+		player.setScore(Integer.parseInt(data.removeFirst()));
 
 		if (worldVer.compareTo(new Version("2.0.4-dev7")) < 0) {
-			int arrowCount = Integer.parseInt(data.remove(0));
+			int arrowCount = Integer.parseInt(data.removeFirst());
 			if (worldVer.compareTo(new Version("2.0.1-dev1")) < 0)
 				player.getInventory().add(Items.get("arrow"), arrowCount).forEach(deathChest.getInventory()::add);
 		}
 
-		Game.currentLevel = Integer.parseInt(data.remove(0));
+		Game.currentLevel = Integer.parseInt(data.removeFirst());
 		Level level = World.levels[Game.currentLevel];
 		if (!player.isRemoved())
 			player.remove(); // Removes the user player from the level, in case they would be added twice.
@@ -1072,12 +1128,12 @@ public class Load {
 			Logging.SAVELOAD.trace("Game level to add player {} to is null.", player);
 
 		if (worldVer.compareTo(new Version("2.0.4-dev8")) < 0) {
-			String modedata = data.remove(0);
+			String modedata = data.removeFirst();
 			if (player == Game.player)
 				loadMode(modedata); // Only load if you're loading the main player
 		}
 
-		String potioneffects = data.remove(0);
+		String potioneffects = data.removeFirst();
 		if (!potioneffects.equals("PotionEffects[]")) {
 			String[] effects = potioneffects.replace("PotionEffects[", "").replace("]", "").split(":");
 
@@ -1089,7 +1145,7 @@ public class Load {
 		}
 
 		if (worldVer.compareTo(new Version("1.9.4-dev4")) < 0) {
-			String colors = data.remove(0).replace("[", "").replace("]", "");
+			String colors = data.removeFirst().replace("[", "").replace("]", "");
 			String[] color = colors.split(";");
 			int[] cols = new int[color.length];
 			for (int i = 0; i < cols.length; i++)
@@ -1099,23 +1155,23 @@ public class Load {
 			Logging.SAVELOAD.debug("Getting color as " + col);
 			player.shirtColor = Integer.parseInt(col);
 		} else if (worldVer.compareTo(new Version("2.0.6-dev4")) < 0) {
-			String color = data.remove(0);
+			String color = data.removeFirst();
 			int[] colors = new int[3];
 			for (int i = 0; i < 3; i++)
 				colors[i] = Integer.parseInt(String.valueOf(color.charAt(i)));
 			player.shirtColor = Color.get(1, colors[0] * 51, colors[1] * 51, colors[2] * 51);
 		} else
-			player.shirtColor = Integer.parseInt(data.remove(0));
+			player.shirtColor = Integer.parseInt(data.removeFirst());
 
 		// Just delete the slot reserved for loading legacy skins.
 		if (worldVer.compareTo(new Version("2.1.0")) < 0) {
-			data.remove(0);
+			data.removeFirst();
 		}
 
 		// Loading unlocked recipes.
 		if (worldVer.compareTo(new Version("2.2.0-dev3")) >= 0) {
 			ArrayList<Recipe> recipes = new ArrayList<>();
-			JSONObject unlockedRecipes = new JSONObject(data.remove(0));
+			JSONObject unlockedRecipes = new JSONObject(data.removeFirst());
 			for (String key : unlockedRecipes.keySet()) {
 				JSONArray costsJson = unlockedRecipes.getJSONArray(key);
 				String[] costs = new String[costsJson.length()];
@@ -1239,15 +1295,19 @@ public class Load {
 
 	private void loadEntities(String filename) {
 		LoadingDisplay.setMessage("minicraft.displays.loading.message.entities");
-		loadFromFile(location + filename + extension);
-
 		for (int i = 0; i < World.levels.length; i++) {
 			World.levels[i].clearEntities();
 		}
-		for (String name : data) {
-			if (name.startsWith("Player")) continue;
-			loadEntity(name, worldVer, true);
+		try (SaveTokenizer entities = new SaveTokenizer(location + filename + extension)) {
+			while (entities.hasNext()) {
+				String name = entities.next();
+				if (name.startsWith("Player")) continue;
+				loadEntity(name, worldVer, true);
+			}
+		} catch (IOException e) {
+			Logging.SAVELOAD.error(e, "Unable to read entities.");
 		}
+		LoadingDisplay.progress(percentInc);
 
 		for (int i = 0; i < World.levels.length; i++) {
 			World.levels[i].checkChestCount();
@@ -0,0 +1,406 @@
+package minicraft.saveload;
+
+import minicraft.level.ChunkManager;
+import minicraft.level.tile.Tiles;
+import minicraft.util.Logging;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads and writes region files, which hold the chunks of a REGION_SIZE x REGION_SIZE chunk area of a level in one file.
+ * <p>
+ * A region file starts with a header of:
+ * <ul>
+ *     <li>the int MAGIC and the short VERSION;</li>
+ *     <li>the byte ordinal of the SaveCompression.Codec every payload is compressed with, since version 2;</li>
+ *     <li>an offset table of an int offset and an int length for every chunk in the region,
+ *     indexed x + y * REGION_SIZE by chunk position in the region, where a length of 0 means the chunk is not in the file.</li>
+ * </ul>
+ * The chunk payloads follow. Each is a palette of the tile names used in the chunk,
+ * then the tile ids as runs of palette indices, then the tile data as runs of values,
+ * all in x + y * CHUNK_SIZE order, with every number stored as a variable-length integer.
+ * Payloads are compressed one by one, so that single chunks can still be read without the rest.
+ */
+public class RegionFile {
+	public static final int REGION_SHIFT = 4;
+	public static final int REGION_SIZE = 1 << REGION_SHIFT; // In chunks
+	public static final int VERSION = 2;
+	public static final String EXTENSION = ".region";
+
+	private static final int MAGIC = 0x4D505247; // "MPRG"
+	private static final int CHUNKS = REGION_SIZE * REGION_SIZE;
+	private static final int HEADER_SIZE = 4 + 2 + 1 + CHUNKS * 8;
+	private static final int TILES = ChunkManager.CHUNK_SIZE * ChunkManager.CHUNK_SIZE;
+
+	private RegionFile() {}
+
+	public static String fileName(int regionX, int regionY) {
+		return "r." + regionX + "." + regionY + EXTENSION;
+	}
+
+	/**
+	 * @return The region coordinate that the given chunk coordinate is in.
+	 */
+	public static int regionOf(int chunk) {
+		return chunk >> REGION_SHIFT;
+	}
+
+	/**
+	 * @return Where the given chunk is in the offset table of its region.
+	 */
+	public static int indexOf(int chunkX, int chunkY) {
+		return (chunkX & (REGION_SIZE - 1)) + (chunkY & (REGION_SIZE - 1)) * REGION_SIZE;
+	}
+
+	/**
+	 * The start of a region file, which says where the offset table is and how the payloads are compressed.
+	 */
+	private static class Header {
+		private final int tableStart;
+		private final SaveCompression.Codec codec;
+
+		/**
+		 * @param in The start of the file, read with absolute gets.
+		 */
+		private Header(ByteBuffer in, File file) throws IOException {
+			try {
+				if (in.getInt(0) != MAGIC) throw new IOException("Not a region file: " + file);
+				int version = in.getShort(4);
+				if (version > VERSION) throw new IOException("Region file " + file + " is of a newer version (" + version + ").");
+				if (version < 2) { // Never compressed
+					tableStart = 6;
+					codec = SaveCompression.Codec.NONE;
+				} else {
+					tableStart = 7;
+					int ordinal = in.get(6);
+					if (ordinal < 0 || ordinal >= SaveCompression.Codec.values().length)
+						throw new IOException("Region file " + file + " has an unknown compression (" + ordinal + ").");
+					codec = SaveCompression.Codec.values()[ordinal];
+				}
+			} catch (IndexOutOfBoundsException e) {
+				throw new IOException("Region file " + file + " is corrupt.", e);
+			}
+		}
+
+		private int entry(int chunkX, int chunkY) {
+			return tableStart + indexOf(chunkX, chunkY) * 8;
+		}
+
+		private int size() {
+			return tableStart + CHUNKS * 8;
+		}
+	}
+
+	/**
+	 * Encodes the tile ids and data of a chunk, both indexed x + y * CHUNK_SIZE, into a chunk payload.
+	 */
+	public static byte[] encodeChunk(short[] ids, short[] data) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			// Tile ids are small and dense, so the palette index of each id is kept in a table indexed by id.
+			int maxId = 0;
+			for (short id : ids)
+				if (id > maxId) maxId = id;
+			short[] paletteIndex = new short[maxId + 1];
+			Arrays.fill(paletteIndex, (short) -1);
+			short[] palette = new short[maxId + 1];
+			int paletteSize = 0;
+			for (short id : ids) {
+				if (paletteIndex[id] < 0) {
+					paletteIndex[id] = (short) paletteSize;
+					palette[paletteSize++] = id;
+				}
+			}
+
+			writeVarInt(out, paletteSize);
+			for (int i = 0; i < paletteSize; i++) {
+				byte[] name = Tiles.get(palette[i]).name.getBytes(StandardCharsets.UTF_8);
+				writeVarInt(out, name.length);
+				out.write(name);
+			}
+
+			for (int i = 0; i < TILES; ) {
+				int run = runLength(ids, i);
+				writeVarInt(out, run);
+				writeVarInt(out, paletteIndex[ids[i]]);
+				i += run;
+			}
+
+			for (int i = 0; i < TILES; ) {
+				int run = runLength(data, i);
+				writeVarInt(out, run);
+				writeVarInt(out, (data[i] << 1) ^ (data[i] >> 31)); // Zigzag, so that negative values stay short
+				i += run;
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e); // Never thrown by a ByteArrayOutputStream
+		}
+
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Decodes a chunk payload, starting at the position of the buffer, into the given arrays.
+	 * @throws IOException If the payload is corrupt.
+	 */
+	public static void decodeChunk(ByteBuffer in, short[] ids, short[] data) throws IOException {
+		try {
+			short[] palette = new short[readVarInt(in)];
+			for (int i = 0; i < palette.length; i++) {
+				byte[] name = new byte[readVarInt(in)];
+				in.get(name);
+				palette[i] = Tiles.get(new String(name, StandardCharsets.UTF_8)).id;
+			}
+
+			for (int i = 0; i < TILES; ) {
+				int run = readVarInt(in);
+				short id = palette[readVarInt(in)];
+				if (run <= 0 || i + run > TILES) throw new IOException("Tile run out of bounds.");
+				for (int end = i + run; i < end; i++)
+					ids[i] = id;
+			}
+
+			for (int i = 0; i < TILES; ) {
+				int run = readVarInt(in);
+				int zigzag = readVarInt(in);
+				short value = (short) ((zigzag >>> 1) ^ -(zigzag & 1));
+				if (run <= 0 || i + run > TILES) throw new IOException("Data run out of bounds.");
+				for (int end = i + run; i < end; i++)
+					data[i] = value;
+			}
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new IOException("Chunk payload is corrupt.", e);
+		}
+	}
+
+	/**
+	 * Reads every chunk payload in a region file, decompressed.
+	 * @return The payloads, indexed by {@link #indexOf(int, int)}; null where the region has no such chunk.
+	 */
+	public static byte[][] read(File file) throws IOException {
+		ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+		Header header = new Header(in, file);
+		byte[][] chunks = new byte[CHUNKS][];
+		try {
+			for (int i = 0; i < CHUNKS; i++) {
+				int offset = in.getInt(header.tableStart + i * 8), length = in.getInt(header.tableStart + i * 8 + 4);
+				if (length == 0) continue;
+				chunks[i] = new byte[length];
+				ByteBuffer payload = in.duplicate();
+				payload.position(offset);
+				payload.get(chunks[i]);
+				chunks[i] = SaveCompression.decompress(header.codec, chunks[i]);
+			}
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+			throw new IOException("Region file " + file + " is corrupt.", e);
+		}
+
+		return chunks;
+	}
+
+	/**
+	 * Reads which chunks a region file has from its offset table, without reading or mapping the rest of the file.
+	 * @return Whether the region file has each chunk, indexed by {@link #indexOf(int, int)}.
+	 */
+	public static boolean[] savedChunks(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer start = ByteBuffer.allocate(7);
+			readFully(channel, start, 0);
+			Header header = new Header(start, file);
+			ByteBuffer table = ByteBuffer.allocate(CHUNKS * 8);
+			readFully(channel, table, header.tableStart);
+			boolean[] saved = new boolean[CHUNKS];
+			for (int i = 0; i < CHUNKS; i++)
+				saved[i] = table.getInt(i * 8 + 4) != 0;
+			return saved;
+		}
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining())
+			if (channel.read(buffer, position + buffer.position()) < 0)
+				throw new IOException("Region file is cut off.");
+	}
+
+	/**
+	 * Reads single chunks out of a region file, which is mapped into memory once, rather than read in whole.
+	 * Chunks are found through the offset table and decoded straight from the mapped file, unless they are compressed.
+	 * The mapping is released by {@link #close()}, which has to be done before the file is replaced,
+	 * and while nothing is reading from it.
+	 */
+	public static class Reader implements Closeable {
+		private MappedByteBuffer buffer;
+		private final Header header;
+
+		public Reader(File file) throws IOException {
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // Stays valid after the channel is closed
+			}
+
+			header = new Header(buffer, file);
+		}
+
+		/**
+		 * Decodes the given chunk into the given arrays.
+		 * @return False if the region file does not have the chunk.
+		 * @throws IOException If the chunk is corrupt.
+		 */
+		public boolean readChunk(int chunkX, int chunkY, short[] ids, short[] data) throws IOException {
+			ByteBuffer payload = payload(chunkX, chunkY);
+			if (payload == null) return false;
+			decodeChunk(payload, ids, data);
+			return true;
+		}
+
+		/**
+		 * Copies the payload of the given chunk out of the file, decompressed.
+		 * @return Null if the region file does not have the chunk.
+		 */
+		public byte[] readPayload(int chunkX, int chunkY) throws IOException {
+			ByteBuffer payload = payload(chunkX, chunkY);
+			if (payload == null) return null;
+			byte[] bytes = new byte[payload.remaining()];
+			payload.get(bytes);
+			return bytes;
+		}
+
+		/**
+		 * @return The payload of the given chunk, as a view of the mapped file if it isn't compressed; null if the file does not have it.
+		 */
+		private ByteBuffer payload(int chunkX, int chunkY) throws IOException {
+			if (buffer == null) throw new IOException("Region file reader is closed.");
+			int entry = header.entry(chunkX, chunkY);
+			if (entry + 8 > buffer.limit()) throw new IOException("Region file header is cut off.");
+			int offset = buffer.getInt(entry), length = buffer.getInt(entry + 4);
+			if (length == 0) return null;
+			if (offset < header.size() || length < 0 || offset > buffer.limit() - length)
+				throw new IOException("Chunk (" + chunkX + ", " + chunkY + ") is outside of its region file.");
+
+			ByteBuffer payload = buffer.duplicate();
+			payload.limit(offset + length).position(offset);
+			if (header.codec != SaveCompression.Codec.NONE) {
+				byte[] compressed = new byte[length];
+				payload.get(compressed);
+				payload = ByteBuffer.wrap(SaveCompression.decompress(header.codec, compressed));
+			}
+			return payload;
+		}
+
+		@Override
+		public void close() {
+			if (buffer == null) return;
+			unmap(buffer);
+			buffer = null;
+		}
+	}
+
+	private static boolean unmapFailed = false;
+
+	/**
+	 * Releases a mapping right away, rather than once the buffer is collected, through the JDK's own cleaner.
+	 * Nothing may use the buffer afterwards.
+	 */
+	private static void unmap(MappedByteBuffer buffer) {
+		try {
+			try {
+				Class<?> unsafeClass = Class.forName("sun.misc.Unsafe"); // Java 9 and up
+				Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+				Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+				theUnsafe.setAccessible(true);
+				invokeCleaner.invoke(theUnsafe.get(null), buffer);
+			} catch (NoSuchMethodException e) { // Java 8
+				Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+				cleanerMethod.setAccessible(true);
+				Object cleaner = cleanerMethod.invoke(buffer);
+				if (cleaner != null) cleaner.getClass().getMethod("clean").invoke(cleaner);
+			}
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			if (!unmapFailed) {
+				unmapFailed = true;
+				Logging.SAVELOAD.warn(e, "Unable to release region file mappings; they are released once collected.");
+			}
+		}
+	}
+
+	/**
+	 * Writes a region file next to the given one, to replace it with {@link #replace(File, File)},
+	 * so that the old one is only replaced once the new one is complete.
+	 * @param chunks The chunk payloads, uncompressed, indexed by {@link #indexOf(int, int)}; null where the region has no such chunk.
+	 * @return The file written.
+	 */
+	public static File writeTemp(File file, byte[][] chunks, SaveCompression compression) throws IOException {
+		chunks = chunks.clone();
+		for (int i = 0; i < chunks.length; i++)
+			if (chunks[i] != null) chunks[i] = compression.compress(chunks[i]);
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC);
+		header.putShort((short) VERSION);
+		header.put((byte) compression.codec.ordinal());
+		int offset = HEADER_SIZE;
+		for (byte[] chunk : chunks) {
+			header.putInt(chunk == null ? 0 : offset);
+			header.putInt(chunk == null ? 0 : chunk.length);
+			if (chunk != null) offset += chunk.length;
+		}
+
+		File temp = new File(file.getPath() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+			out.write(header.array());
+			for (byte[] chunk : chunks)
+				if (chunk != null) out.write(chunk);
+		}
+
+		return temp;
+	}
+
+	/**
+	 * Moves a region file written by {@link #writeTemp} into place.
+	 * Some systems won't replace a file that is mapped, so any Reader of it has to be closed by now.
+	 */
+	public static void replace(File temp, File file) throws IOException {
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private static int runLength(short[] values, int start) {
+		int end = start + 1;
+		while (end < values.length && values[end] == values[start])
+			end++;
+		return end - start;
+	}
+
+	private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int readVarInt(ByteBuffer in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = in.get();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) return value;
+		}
+		throw new IOException("Variable-length integer is too long.");
+	}
+}
@@ -33,6 +33,7 @@ import minicraft.item.Item;
 import minicraft.item.PotionType;
 import minicraft.item.Recipe;
 import minicraft.level.ChunkManager;
+import minicraft.level.TileTickQueue;
 import minicraft.screen.AchievementsDisplay;
 import minicraft.screen.CraftingDisplay;
 import minicraft.screen.LoadingDisplay;
@@ -45,16 +46,25 @@ import minicraft.screen.TutorialDisplayHandler;
 import minicraft.screen.WorldSelectDisplay;
 import minicraft.util.AdvancementElement;
 import minicraft.util.Logging;
+import org.jetbrains.annotations.Nullable;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
+import java.io.OutputStreamWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class Save {
 
@@ -68,12 +78,41 @@ public class Save {
 
 	List<String> data;
 
+	/**
+	 * A write to the world folder, which may be put off until a background save gets to it.
+	 */
+	private interface SaveTask {
+		void run() throws IOException;
+	}
+
+	private static final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "Save Writer");
+		thread.setDaemon(true); // Game waits for it before exiting
+		return thread;
+	});
+	@Nullable
+	private static volatile Future<?> backgroundSave = null; // The autosave being written, if any; at most one is in flight
+	private static volatile boolean lastSaveFailed = false; // Makes the next save write every chunk, since some may have been missed
+
+	@Nullable
+	private final List<SaveTask> deferred; // Writes put off for the background writer, or null if they are done right away
+	private boolean failed = false;
+	private int chunksWritten = 0;
+	private long bytesWritten = 0;
+	private final SaveCompression compression = SaveCompression.worldSaves; // Taken once, so that every file of a save matches
+
+	private Save(File worldFolder) {
+		this(worldFolder, false);
+	}
+
 	/**
 	 * This is the main save method. Called by all Save() methods.
 	 * @param worldFolder The folder of where to save
+	 * @param background If writes should be collected to run on the background writer, instead of done right away.
 	 */
-	private Save(File worldFolder) {
+	private Save(File worldFolder, boolean background) {
 		data = new ArrayList<>();
+		deferred = background ? new ArrayList<>() : null;
 
 
 		if (worldFolder.getParent().equals("saves")) {
@@ -97,23 +136,112 @@ public class Save {
 	}
 
 	/**
-	 * This will save world options
+	 * This will save world options, writing only the chunks that changed.
 	 * @param worldname The name of the world.
 	 */
 	public Save(String worldname) {
+		this(worldname, false);
+	}
+
+	/**
+	 * This will save world options
+	 * @param worldname The name of the world.
+	 * @param full If every chunk should be written, rather than only those that changed since the last save.
+	 */
+	public Save(String worldname, boolean full) {
 		this(new File(Game.gameDir + "/saves/" + worldname + "/"));
+		awaitBackgroundSave(); // Otherwise it could finish after this one, with older data
+
+		writeWorldSave(full || lastSaveFailed);
+		lastSaveFailed = failed;
+
+		WorldSelectDisplay.updateWorlds();
+
+		Updater.notifyAll("minicraft.notification.world_saved");
+		Updater.asTick = 0;
+		Updater.saving = false;
+	}
 
+	private void writeWorldSave(boolean full) {
 		writeGame("Game");
-		writeWorld("Level");
+		writeWorld("Level", full);
 		writePlayer("Player", Game.player);
 		writeInventory("Inventory", Game.player);
 		writeEntities("Entities");
+	}
+
+	/**
+	 * Saves the world without holding up the game. The world is copied on this thread, then encoded and written by the background writer.
+	 * Does nothing if the last autosave is still being written.
+	 * @param worldname The name of the world.
+	 */
+	public static void autosave(String worldname) {
+		if (backgroundSave != null && !backgroundSave.isDone()) {
+			Logging.SAVELOAD.debug("Skipping autosave, since the last one is still being written.");
+			return;
+		}
+
+		Save save = new Save(new File(Game.gameDir + "/saves/" + worldname + "/"), true);
+		save.writeWorldSave(lastSaveFailed);
+		backgroundSave = writer.submit(() -> {
+			for (SaveTask task : save.deferred)
+				save.run(task);
+			if (save.failed) lastSaveFailed = true;
+		});
+	}
 
+	/**
+	 * Should be called every tick; returns true once, when an autosave has finished writing.
+	 */
+	public static boolean pollBackgroundSave() {
+		if (backgroundSave == null || !backgroundSave.isDone()) return false;
+		awaitBackgroundSave(); // Reports any errors
 		WorldSelectDisplay.updateWorlds();
+		return true;
+	}
 
-		Updater.notifyAll("minicraft.notification.world_saved");
-		Updater.asTick = 0;
-		Updater.saving = false;
+	/**
+	 * Waits for the autosave being written, if any, to finish.
+	 * Anything that reads or replaces the world folder, or exits the game, should call this first.
+	 */
+	public static void awaitBackgroundSave() {
+		Future<?> save = backgroundSave;
+		if (save == null) return;
+		try {
+			save.get();
+		} catch (InterruptedException | ExecutionException e) {
+			Logging.SAVELOAD.error(e, "Autosave failed.");
+			lastSaveFailed = true;
+		}
+		backgroundSave = null;
+	}
+
+	/**
+	 * Runs a write right away, or puts it off until the background writer gets to it.
+	 * @param description What is being written, for the error message.
+	 */
+	private void submit(String description, SaveTask task) {
+		SaveTask described = () -> {
+			try {
+				task.run();
+			} catch (IOException e) {
+				throw new IOException("Unable to write " + description + ".", e);
+			}
+		};
+
+		if (deferred != null)
+			deferred.add(described);
+		else
+			run(described);
+	}
+
+	private void run(SaveTask task) {
+		try {
+			task.run();
+		} catch (IOException e) {
+			Logging.SAVELOAD.error(e, e.getMessage());
+			failed = true;
+		}
 	}
 
 	/**
@@ -172,14 +300,23 @@ public class Save {
 	}
 
 	public void writeToFile(String filename, List<String> savedata) {
+		writeToFile(filename, savedata, compression);
+	}
+
+	private void writeToFile(String filename, List<String> savedata, SaveCompression compression) {
+		String[] lines = savedata.toArray(new String[0]);
+		data.clear();
+		if (deferred != null) { // Rendering progress from here would only hold up the snapshot
+			submit(filename, () -> writeToFile(filename, lines, true, compression));
+			return;
+		}
+
 		try {
-			writeToFile(filename, savedata.toArray(new String[0]), true);
+			writeToFile(filename, lines, true, compression);
 		} catch (IOException ex) {
 			ex.printStackTrace();
 		}
 
-		data.clear();
-
 		LoadingDisplay.progress(7);
 		if (LoadingDisplay.getPercentage() > 100) {
 			LoadingDisplay.setPercentage(100);
@@ -189,7 +326,11 @@ public class Save {
 	}
 
 	public static void writeToFile(String filename, String[] savedata, boolean isWorldSave) throws IOException {
-		try (BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(filename))) {
+		writeToFile(filename, savedata, isWorldSave, SaveCompression.NONE);
+	}
+
+	public static void writeToFile(String filename, String[] savedata, boolean isWorldSave, SaveCompression compression) throws IOException {
+		try (BufferedWriter bufferedWriter = new BufferedWriter(new OutputStreamWriter(compression.wrap(new FileOutputStream(filename))))) {
 			for (int i = 0; i < savedata.length; i++) {
 				bufferedWriter.write(savedata[i]);
 				if (isWorldSave) {
@@ -220,7 +361,8 @@ public class Save {
 		data.add(String.valueOf(Settings.get("quests")));
 		data.add(String.valueOf(Settings.get("tutorials")));
 		data.add(String.valueOf(ObsidianKnight.beaten));
-		writeToFile(location + filename + extension, data);
+		data.add(compression.toString()); // Only for reference, since compressed files are told apart when read
+		writeToFile(location + filename + extension, data, SaveCompression.NONE); // Left plain, since it says which version the rest was saved by
 	}
 
 	private void writePrefs() {
@@ -267,8 +409,14 @@ public class Save {
 		}
 	}
 
-	private void writeWorld(String filename) {
+	/**
+	 * Writes the chunks of every level, and the index of which chunks there are.
+	 * Chunks are copied and marked clean right away, but only encoded and written when the save's writes are run.
+	 * @param full If false, only chunks that changed since they were last saved or loaded are written.
+	 */
+	private void writeWorld(String filename, boolean full) {
 		LoadingDisplay.setMessage("minicraft.displays.loading.message.levels");
+		int chunksTotal = 0;
 		for (int l = 0; l < World.levels.length; l++) {
 			/*String worldSize = String.valueOf(Settings.get("size"));
 			data.add(worldSize);
@@ -284,38 +432,63 @@ public class Save {
 
 			writeToFile(location + filename + l + extension, data);*/
 			new File(location + filename + l).mkdir();
+			String levelFolder = location + filename + l + "/";
 			List<String> index = new ArrayList<>();
+			HashMap<Point, HashMap<Point, PayloadSource>> regions = new HashMap<>(); // The chunks to write, by region
 			ChunkManager c = World.levels[l].chunkManager;
+			HashMap<Point, List<String>> tileTicks = new HashMap<>(); // Scheduled tile ticks are saved with the chunk they are in
+			for (TileTickQueue.ScheduledTick tick : World.levels[l].getScheduledTileTicks()) {
+				Point chunk = new Point(Math.floorDiv(tick.x, ChunkManager.CHUNK_SIZE), Math.floorDiv(tick.y, ChunkManager.CHUNK_SIZE));
+				List<String> ticks = tileTicks.computeIfAbsent(chunk, k -> new ArrayList<>());
+				ticks.add(String.valueOf(tick.x));
+				ticks.add(String.valueOf(tick.y));
+				ticks.add(String.valueOf(World.levels[l].getTileTickDelay(tick)));
+			}
 			for(Point p : c.getAllChunks()) {
 				if(c.getChunkStage(p.x, p.y) != ChunkManager.CHUNK_STAGE_DONE)
 					continue;
+				chunksTotal++;
 				index.add(String.valueOf(p.x));
 				index.add(String.valueOf(p.y));
-				List<String> tiles = new ArrayList<>();
-				for(int x = 0; x < ChunkManager.CHUNK_SIZE; x++)
-					for(int y = 0; y < ChunkManager.CHUNK_SIZE; y++) {
-						int tX = x+p.x*ChunkManager.CHUNK_SIZE, tY = y+p.y*ChunkManager.CHUNK_SIZE;
-						tiles.add(String.valueOf(World.levels[l].getTile(tX, tY).name));
-						data.add(String.valueOf(World.levels[l].getData(tX, tY)));
-					}
-				writeToFile(location + filename + l + "/d." + String.valueOf(p.x) + "." + String.valueOf(p.y) + extension, data);
-				writeToFile(location + filename + l + "/t." + String.valueOf(p.x) + "." + String.valueOf(p.y) + extension, tiles);
+				String ticksFile = levelFolder + "s." + p.x + "." + p.y + extension;
+				if (tileTicks.containsKey(p)) { // Written every time, since the delays count down
+					writeToFile(ticksFile, tileTicks.get(p));
+					submit(ticksFile, () -> countWritten(ticksFile));
+				} else if ((full || c.isChunkDirty(p.x, p.y)) && !c.isChunkUnread(p.x, p.y)) // The ticks of chunks not read yet are still in their file
+					submit(ticksFile, () -> new File(ticksFile).delete()); // Left from an earlier save
+				if (!full && !c.isChunkDirty(p.x, p.y)) // Already saved as it is
+					continue;
+				c.markChunkClean(p.x, p.y); // Changes from here on go in the next save
+				PayloadSource payload;
+				if(!c.isChunkResident(p.x, p.y)) // Unloaded chunks were already encoded when they were unloaded, and unread ones are in the old region file
+					payload = () -> ChunkSpill.readPayload(levelFolder, p.x, p.y);
+				else {
+					short[] ids = new short[ChunkManager.CHUNK_SIZE * ChunkManager.CHUNK_SIZE];
+					short[] tileData = new short[ChunkManager.CHUNK_SIZE * ChunkManager.CHUNK_SIZE];
+					c.copyChunk(p.x, p.y, ids, tileData);
+					payload = () -> RegionFile.encodeChunk(ids, tileData);
+				}
+				regions.computeIfAbsent(new Point(RegionFile.regionOf(p.x), RegionFile.regionOf(p.y)), k -> new HashMap<>()).put(p, payload);
 			}
-			writeToFile(location + filename + l + "/index" + extension, index);
+			for (Map.Entry<Point, HashMap<Point, PayloadSource>> region : regions.entrySet())
+				writeRegion(levelFolder, region.getKey(), region.getValue(), full);
+			String indexFile = location + filename + l + "/index" + extension;
+			writeToFile(indexFile, index);
+			submit(indexFile, () -> countWritten(indexFile));
 		}
 
+		int total = chunksTotal;
+		submit("save summary", () -> Logging.SAVELOAD.info("{} save wrote {} of {} chunks, {} bytes of chunk files.",
+			full ? "Full" : "Incremental", chunksWritten, total, bytesWritten));
+
 		{ // Advancements
 			JSONObject fileObj = new JSONObject();
 			fileObj.put("Version", Game.VERSION.toString());
 			TutorialDisplayHandler.save(fileObj);
 			AdvancementElement.saveRecipeUnlockingElements(fileObj);
 			QuestsDisplay.save(fileObj);
-			try {
-				writeJSONToFile(location + "advancements.json", fileObj.toString(4));
-			} catch (IOException e) {
-				e.printStackTrace();
-				Logging.SAVELOAD.error("Unable to write advancements.json.");
-			}
+			String json = fileObj.toString(4);
+			submit("advancements.json", () -> writeJSONToFile(location + "advancements.json", json));
 		}
 
 		{ // Sign Data
@@ -328,15 +501,44 @@ public class Save {
 				.put("y", key.getValue().y)
 				.put("lines", value)));
 			fileObj.put("signs", dataObj);
-			try {
-				writeJSONToFile(location + "signs.json", fileObj.toString(4));
-			} catch (IOException e) {
-				e.printStackTrace();
-				Logging.SAVELOAD.error("Unable to write signs.json.");
-			}
+			String json = fileObj.toString(4);
+			submit("signs.json", () -> writeJSONToFile(location + "signs.json", json));
 		}
 	}
 
+	/**
+	 * Somewhere the region file payload of a chunk can be had from, when a save gets to writing it.
+	 */
+	private interface PayloadSource {
+		byte[] get() throws IOException;
+	}
+
+	/**
+	 * Writes the given chunks into their region file. Unless the save is full, the other chunks already in the file are kept.
+	 * @param levelFolder The folder the level is saved in, ending with a slash.
+	 */
+	private void writeRegion(String levelFolder, Point region, HashMap<Point, PayloadSource> chunks, boolean full) {
+		File regionFile = new File(levelFolder + RegionFile.fileName(region.x, region.y));
+		submit(regionFile.getPath(), () -> {
+			byte[][] payloads = !full && regionFile.exists() ? RegionFile.read(regionFile) : new byte[RegionFile.REGION_SIZE * RegionFile.REGION_SIZE][];
+			for (Map.Entry<Point, PayloadSource> chunk : chunks.entrySet())
+				payloads[RegionFile.indexOf(chunk.getKey().x, chunk.getKey().y)] = chunk.getValue().get();
+			ChunkSpill.writeRegion(regionFile, payloads, compression);
+			chunksWritten += chunks.size();
+			countWritten(regionFile.getPath());
+
+			for (Point chunk : chunks.keySet()) { // Upgrades worlds from the old format, with two text files per chunk
+				new File(levelFolder + "t." + chunk.x + "." + chunk.y + extension).delete();
+				new File(levelFolder + "d." + chunk.x + "." + chunk.y + extension).delete();
+			}
+		});
+	}
+
+	private void countWritten(String... files) {
+		for (String file : files)
+			bytesWritten += new File(file).length();
+	}
+
 	private void writePlayer(String filename, Player player) {
 		LoadingDisplay.setMessage("Player");
 		writePlayer(player, data);
@@ -0,0 +1,125 @@
+package minicraft.saveload;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * How the files of a world save are compressed, if at all.
+ * Compressed text files are told apart from plain ones by their first bytes, and region files say how their chunks are compressed,
+ * so a world can be saved with a different setting than it was loaded with.
+ */
+public class SaveCompression {
+	public enum Codec { NONE, DEFLATE, GZIP }
+
+	public static final SaveCompression NONE = new SaveCompression(Codec.NONE, 0);
+	public static SaveCompression worldSaves = NONE; // What worlds are saved with; set by --save-compression
+	public static final String CHOICES = "none, deflate or gzip, optionally followed by a colon and a level from 0 to 9"; // What parse takes
+
+	public final Codec codec;
+	public final int level; // From 0 to 9, or -1 for the default of the codec
+
+	public SaveCompression(Codec codec, int level) {
+		if (level < -1 || level > 9) throw new IllegalArgumentException("Compression level must be from -1 to 9: " + level);
+		this.codec = codec;
+		this.level = level;
+	}
+
+	/**
+	 * Parses "none", "deflate" or "gzip", optionally followed by a colon and a level, as given by toString.
+	 * @throws IllegalArgumentException If the value isn't one of the CHOICES.
+	 */
+	public static SaveCompression parse(String value) {
+		String[] parts = value.trim().split(":");
+		Codec codec = Codec.valueOf(parts[0].toUpperCase());
+		if (codec == Codec.NONE) return NONE;
+		return new SaveCompression(codec, parts.length > 1 ? Integer.parseInt(parts[1]) : Deflater.DEFAULT_COMPRESSION);
+	}
+
+	@Override
+	public String toString() {
+		if (codec == Codec.NONE) return "none";
+		return level == Deflater.DEFAULT_COMPRESSION ? codec.name().toLowerCase() : codec.name().toLowerCase() + ":" + level;
+	}
+
+	/**
+	 * Wraps a stream so that what is written to it is compressed. Closing the returned stream closes the given one.
+	 */
+	public OutputStream wrap(OutputStream out) throws IOException {
+		switch (codec) {
+			case DEFLATE:
+				return new DeflaterOutputStream(out, new Deflater(level), 8192) {
+					@Override
+					public void close() throws IOException {
+						super.close();
+						def.end(); // Only done by the stream itself for a deflater it made
+					}
+				};
+			case GZIP:
+				return new GZIPOutputStream(out, 8192) {{
+					def.setLevel(level);
+				}};
+			default:
+				return out;
+		}
+	}
+
+	public byte[] compress(byte[] data) throws IOException {
+		if (codec == Codec.NONE) return data;
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 2 + 64);
+		try (OutputStream out = wrap(bytes)) {
+			out.write(data);
+		}
+		return bytes.toByteArray();
+	}
+
+	public static byte[] decompress(Codec codec, byte[] data) throws IOException {
+		if (codec == Codec.NONE) return data;
+		try (InputStream in = unwrap(codec, new ByteArrayInputStream(data))) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length * 4);
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) > 0)
+				bytes.write(buffer, 0, read);
+			return bytes.toByteArray();
+		}
+	}
+
+	private static InputStream unwrap(Codec codec, InputStream in) throws IOException {
+		switch (codec) {
+			case DEFLATE: return new InflaterInputStream(in);
+			case GZIP: return new GZIPInputStream(in, 8192);
+			default: return in;
+		}
+	}
+
+	/**
+	 * Opens a file of a world save for reading, decompressing it if it was compressed.
+	 */
+	public static InputStream open(String filename) throws IOException {
+		BufferedInputStream in = new BufferedInputStream(new FileInputStream(filename), 8192);
+		in.mark(2);
+		int first = in.read(), second = in.read();
+		in.reset();
+		return unwrap(detect(first, second), in);
+	}
+
+	/**
+	 * Tells what a file was compressed with from its first two bytes.
+	 */
+	static Codec detect(int first, int second) {
+		if (first == 0x1F && second == 0x8B) return Codec.GZIP;
+		// A zlib header: the deflate method with a 32K window, and a check value. No text save starts with "x" and one of these.
+		if (first == 0x78 && second >= 0 && ((first << 8) | second) % 31 == 0) return Codec.DEFLATE;
+		return Codec.NONE;
+	}
+}
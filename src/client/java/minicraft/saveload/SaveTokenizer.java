@@ -0,0 +1,151 @@
+package minicraft.saveload;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the comma separated values of a world save file one at a time, straight from the file.
+ * Commas inside {}, [] or () don't split values, so that entity data and JSON come out whole.
+ * Line breaks are dropped and values are trimmed, the same as when the whole file was read into one string and split.
+ */
+public class SaveTokenizer implements Closeable {
+	private static final char[] OPEN = { '{', '[', '(' };
+	private static final char[] CLOSE = { '}', ']', ')' };
+
+	private final Reader reader;
+	private final char[] buffer = new char[8192];
+	private int position = 0, limit = 0;
+
+	private final StringBuilder token = new StringBuilder();
+	private byte[] brackets = new byte[8]; // The kinds of the brackets that are open, innermost last
+	private boolean ready = false; // If token holds the next value
+	private boolean end = false;
+
+	/**
+	 * Opens a file of a world save, which is decompressed if it was saved compressed.
+	 */
+	public SaveTokenizer(String filename) throws IOException {
+		this(new InputStreamReader(SaveCompression.open(filename)));
+	}
+
+	public SaveTokenizer(Reader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * Reads every value of a file into a list.
+	 */
+	public static ArrayList<String> readAll(String filename) throws IOException {
+		ArrayList<String> out = new ArrayList<>();
+		readAll(filename, out);
+		return out;
+	}
+
+	/**
+	 * Adds every value of a file to the given list.
+	 */
+	public static void readAll(String filename, List<String> out) throws IOException {
+		try (SaveTokenizer in = new SaveTokenizer(filename)) {
+			while (in.hasNext())
+				out.add(in.next());
+		}
+	}
+
+	/**
+	 * Returns false once every value was read. A blank value at the very end of the file, after the last comma, doesn't count.
+	 */
+	public boolean hasNext() throws IOException {
+		if (!ready && !end) readToken();
+		return ready;
+	}
+
+	public String next() throws IOException {
+		if (!hasNext()) throw new IOException("No more values.");
+		ready = false;
+		return trimmed();
+	}
+
+	/**
+	 * Reads the next value as an int, without making a String of it.
+	 */
+	public int nextInt() throws IOException {
+		if (!hasNext()) throw new IOException("No more values.");
+		ready = false;
+		int start = 0, stop = token.length();
+		while (start < stop && token.charAt(start) <= ' ') start++;
+		while (stop > start && token.charAt(stop - 1) <= ' ') stop--;
+
+		boolean negative = start < stop && token.charAt(start) == '-';
+		int i = negative ? start + 1 : start;
+		if (i == stop || stop - i > 9) return Integer.parseInt(trimmed()); // Empty, or long enough to overflow; let parseInt deal with it
+		int value = 0;
+		for (; i < stop; i++) {
+			int digit = token.charAt(i) - '0';
+			if (digit < 0 || digit > 9) return Integer.parseInt(trimmed()); // Throws, unless it is something like a plus sign
+			value = value * 10 + digit;
+		}
+		return negative ? -value : value;
+	}
+
+	private String trimmed() {
+		int start = 0, stop = token.length();
+		while (start < stop && token.charAt(start) <= ' ') start++;
+		while (stop > start && token.charAt(stop - 1) <= ' ') stop--;
+		return token.substring(start, stop);
+	}
+
+	private void readToken() throws IOException {
+		token.setLength(0);
+		int depth = 0;
+		while (true) {
+			if (position == limit) {
+				limit = reader.read(buffer, 0, buffer.length);
+				position = 0;
+				if (limit <= 0) {
+					limit = 0;
+					end = true;
+					if (depth > 0) throw new RuntimeException("Bracket not closed.");
+					// The last value only counts if there is something in it, since values are written with a comma after each.
+					for (int i = 0; i < token.length(); i++)
+						if (token.charAt(i) > ' ') {
+							ready = true;
+							break;
+						}
+					return;
+				}
+			}
+
+			char ch = buffer[position++];
+			if (ch == '\n' || ch == '\r') continue;
+			if (ch == ',' && depth == 0) {
+				ready = true; // Empty values in the middle are kept
+				return;
+			}
+
+			for (int kind = 0; kind < OPEN.length; kind++) {
+				if (ch == OPEN[kind]) {
+					if (depth == brackets.length) {
+						byte[] grown = new byte[depth * 2];
+						System.arraycopy(brackets, 0, grown, 0, depth);
+						brackets = grown;
+					}
+					brackets[depth++] = (byte) kind;
+				} else if (ch == CLOSE[kind]) {
+					if (depth == 0 || brackets[depth - 1] != kind)
+						throw new RuntimeException(String.format("Invalid closing char %s after \"%s\".", ch, token));
+					depth--;
+				}
+			}
+			token.append(ch);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+}
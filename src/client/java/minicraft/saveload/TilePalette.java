@@ -0,0 +1,60 @@
+package minicraft.saveload;
+
+import minicraft.level.ChunkManager;
+import minicraft.level.tile.Tile;
+import minicraft.level.tile.Tiles;
+
+import java.util.HashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the tile names of worlds saved as text, where every tile is saved by name, to tiles.
+ * Each distinct name is only worked out once, so that the name changes and the tile lookup aren't done for every tile.
+ * A palette is not thread safe; every thread reading tiles needs one of its own.
+ */
+public class TilePalette {
+	private static final Pattern OLD_TORCH_TILE_REGEX = Pattern.compile("TORCH ([\\w ]+)");
+
+	/**
+	 * What a tile name resolves to.
+	 */
+	private static class Entry {
+		private final Tile tile;
+		private final boolean hasData; // If the tile data is read from the save, rather than being the fixed data below
+		private final short data;
+
+		private Entry(Tile tile, boolean hasData, short data) {
+			this.tile = tile;
+			this.hasData = hasData;
+			this.data = data;
+		}
+	}
+
+	private final boolean flowerData; // Flowers didn't save their data until after 2.3.0-dev1
+	private final HashMap<String, Entry> entries = new HashMap<>();
+
+	public TilePalette(Version worldVer) {
+		flowerData = worldVer.compareTo(new Version("2.3.0-dev1")) > 0;
+	}
+
+	/**
+	 * Sets a tile, as saved by name along with its data.
+	 */
+	public void setTile(ChunkManager map, int x, int y, String tileName, String tileData) {
+		Entry entry = entries.get(tileName);
+		if (entry == null) {
+			entry = resolve(tileName);
+			entries.put(tileName, entry);
+		}
+
+		map.setTile(x, y, entry.tile, entry.hasData ? Short.parseShort(tileData) : entry.data);
+	}
+
+	private Entry resolve(String tileName) {
+		Matcher matcher;
+		if ((matcher = OLD_TORCH_TILE_REGEX.matcher(tileName.toUpperCase())).matches())
+			return new Entry(Tiles.get("Torch"), false, Tiles.get(matcher.group(1)).id);
+		return new Entry(Tiles.get(tileName), flowerData || !tileName.equalsIgnoreCase("FLOWER"), (short) 0);
+	}
+}
@@ -8,6 +8,7 @@ import minicraft.entity.mob.Player;
 import minicraft.gfx.MinicraftImage;
 import minicraft.gfx.Point;
 import minicraft.gfx.Screen;
+import minicraft.item.CraftabilityIndex;
 import minicraft.item.Item;
 import minicraft.item.Items;
 import minicraft.item.Recipe;
@@ -28,6 +29,7 @@ public class CraftingDisplay extends Display {
 	private final String title;
 	private Recipe[] recipes;
 	private final List<Recipe> availableRecipes = new ArrayList<>();
+	private final CraftabilityIndex craftability;
 
 	private RecipeMenu recipeMenu;
 	private final Menu.Builder itemCountMenu, costsMenu;
@@ -41,8 +43,8 @@ public class CraftingDisplay extends Display {
 	}
 
 	public CraftingDisplay(List<Recipe> recipes, String title, Player player, boolean isPersonal) {
-		for (Recipe recipe : recipes)
-			recipe.checkCanCraft(player);
+		craftability = new CraftabilityIndex(recipes);
+		craftability.refresh(player.getInventory());
 		this.player = player;
 		this.title = title;
 		this.isPersonalCrafter = isPersonal;
@@ -60,7 +62,7 @@ public class CraftingDisplay extends Display {
 
 	private void refreshDisplayRecipes() {
 		List<Recipe> recipes = availableRecipes.stream().filter(unlockedRecipes::contains).collect(Collectors.toList());
-		recipeMenu = new RecipeMenu(recipes, title, player);
+		recipeMenu = new RecipeMenu(recipes, title);
 		this.recipes = recipes.toArray(new Recipe[0]);
 		itemCountMenu.setPositioning(new Point(recipeMenu.getBounds().getRight() + MinicraftImage.boxWidth, recipeMenu.getBounds().getTop()), RelPos.BOTTOM_RIGHT);
 		costsMenu.setPositioning(new Point(itemCountMenu.createMenu().getBounds().getLeft(), recipeMenu.getBounds().getBottom()), RelPos.TOP_RIGHT);
@@ -99,7 +101,7 @@ public class CraftingDisplay extends Display {
 		Map<String, Integer> costMap = recipes[recipeMenu.getSelection()].getCosts();
 		for (String itemName : costMap.keySet()) {
 			Item cost = Items.get(itemName);
-			costList.add(new ItemListing(cost, player.getInventory().count(cost) + "/" + costMap.get(itemName)));
+			costList.add(new ItemListing(cost, craftability.getCount(itemName) + "/" + costMap.get(itemName)));
 		}
 
 		return costList.toArray(new ItemListing[0]);
@@ -192,10 +194,8 @@ public class CraftingDisplay extends Display {
 
 					Sound.play("craft");
 
+					craftability.crafted(player.getInventory(), selectedRecipe);
 					refreshData();
-					for (Recipe recipe : recipes) {
-						recipe.checkCanCraft(player);
-					}
 				}
 			}
 		}
@@ -32,7 +32,7 @@ public class PauseDisplay extends Display {
 
 		entries.add(new SelectEntry("minicraft.displays.pause.save", () -> {
 			Game.setDisplay(null);
-			new Save(WorldSelectDisplay.getWorldName());
+			new Save(WorldSelectDisplay.getWorldName(), true);
 		}));
 
 		entries.addAll(Arrays.asList(
@@ -1,6 +1,5 @@
 package minicraft.screen;
 
-import minicraft.entity.mob.Player;
 import minicraft.item.Recipe;
 import minicraft.screen.entry.RecipeEntry;
 
@@ -8,10 +7,10 @@ import java.util.List;
 
 class RecipeMenu extends ItemListMenu {
 
-	private static RecipeEntry[] getAndSortRecipes(List<Recipe> recipes, Player player) {
+	private static RecipeEntry[] getAndSortRecipes(List<Recipe> recipes) {
 		recipes.sort((r1, r2) -> {
-			boolean craft1 = r1.checkCanCraft(player);
-			boolean craft2 = r2.checkCanCraft(player);
+			boolean craft1 = r1.getCanCraft();
+			boolean craft2 = r2.getCanCraft();
 			if (craft1 == craft2)
 				return 0;
 			if (craft1) return -1;
@@ -23,7 +22,7 @@ class RecipeMenu extends ItemListMenu {
 		return RecipeEntry.useRecipes(recipes);
 	}
 
-	protected RecipeMenu(List<Recipe> recipes, String title, Player player) {
-		super(getAndSortRecipes(recipes, player), title);
+	protected RecipeMenu(List<Recipe> recipes, String title) {
+		super(getAndSortRecipes(recipes), title);
 	}
 }
@@ -22,6 +22,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -29,8 +30,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * World-wide.
@@ -213,7 +216,7 @@ public class AdvancementElement {
 		 */
 		public void markAsCompleted(boolean inLoad, @Nullable LocalDateTime completionTime) {
 			if (this.completionTime == null) {
-				trigger.registeredCriteria.remove(this);
+				trigger.unregister(this);
 				this.completionTime = completionTime == null ? LocalDateTime.now() : completionTime;
 				if (!inLoad && element != null)
 					element.update();
@@ -281,7 +284,7 @@ public class AdvancementElement {
 	 */
 	public void deregisterCriteria() {
 		criteria.values().forEach(criterion -> {
-			criterion.trigger.registeredCriteria.remove(criterion);
+			criterion.trigger.unregister(criterion);
 		});
 	}
 
@@ -448,7 +451,33 @@ public class AdvancementElement {
 			}
 		}
 
-		private static final ExecutorService executorService = Executors.newCachedThreadPool();
+		// Triggers that are not checked on the game thread are checked by a few workers. When the queue is full, as when many
+		// events come at once, the game thread checks the trigger itself rather than events piling up or threads being made.
+		private static final ThreadPoolExecutor executorService = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(256), r -> {
+				Thread thread = new Thread(r, "Advancement Trigger");
+				thread.setDaemon(true);
+				return thread;
+			}, new ThreadPoolExecutor.CallerRunsPolicy());
+
+		// For the debug display.
+		private static final AtomicLong events = new AtomicLong();
+		private static final AtomicLong evaluations = new AtomicLong();
+
+		public static long getEventCount() {
+			return events.get();
+		}
+
+		/**
+		 * @return How many times a criterion was checked against an event.
+		 */
+		public static long getEvaluationCount() {
+			return evaluations.get();
+		}
+
+		public static int getQueueDepth() {
+			return executorService.getQueue().size();
+		}
 
 		protected final AdvancementTriggerConditionHandler conditions;
 
@@ -471,10 +500,67 @@ public class AdvancementElement {
 			return triggers.getOrDefault(key, ImpossibleTrigger.INSTANCE);
 		}
 
-		protected final HashSet<ElementCriterion> registeredCriteria = new HashSet<>();
+		protected final Set<ElementCriterion> registeredCriteria = ConcurrentHashMap.newKeySet();
+		// The registered criteria by the keys from getKeys, under each of their keys.
+		private final ConcurrentHashMap<String, Set<ElementCriterion>> criteriaByKey = new ConcurrentHashMap<>();
+		// The registered criteria without keys, which every event has to be checked against.
+		private final Set<ElementCriterion> unkeyedCriteria = ConcurrentHashMap.newKeySet();
 
 		public void register(ElementCriterion criterion) {
 			registeredCriteria.add(criterion);
+			Set<String> keys = getKeys(criterion.conditions);
+			if (keys.isEmpty()) unkeyedCriteria.add(criterion);
+			else for (String key : keys)
+				criteriaByKey.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(criterion);
+		}
+
+		public void unregister(ElementCriterion criterion) {
+			registeredCriteria.remove(criterion);
+			unkeyedCriteria.remove(criterion);
+			for (String key : getKeys(criterion.conditions)) {
+				Set<ElementCriterion> criteria = criteriaByKey.get(key);
+				if (criteria != null) criteria.remove(criterion);
+			}
+		}
+
+		/**
+		 * The keys, such as tile or item names, of which an event must have at least one for the criterion to be met.
+		 * @return An empty set if any event could meet the criterion.
+		 */
+		protected Set<String> getKeys(AdvancementTriggerConditionHandler.AdvancementCriterionConditions conditions) {
+			return Collections.emptySet();
+		}
+
+		/**
+		 * The registered criteria that an event with the given keys could meet. Counted as evaluations, as all of them are checked.
+		 */
+		protected Set<ElementCriterion> getCandidates(Collection<String> keys) {
+			HashSet<ElementCriterion> candidates = new HashSet<>(unkeyedCriteria);
+			for (String key : keys) {
+				Set<ElementCriterion> criteria = criteriaByKey.get(key);
+				if (criteria != null) candidates.addAll(criteria);
+			}
+
+			evaluations.addAndGet(candidates.size());
+			return candidates;
+		}
+
+		protected static void addItemKeys(Set<String> keys, @Nullable AdvancementTriggerConditionHandler.AdvancementCriterionConditions.ItemConditions conditions) {
+			if (conditions != null) for (String item : conditions.itemKeys) keys.add("item:" + item);
+		}
+
+		/**
+		 * The keys of an event about an item and a tile, matching the keys added by {@link #addItemKeys} and {@link #addTileKeys}.
+		 */
+		protected static List<String> getEventKeys(@Nullable Item item, @Nullable Tile tile) {
+			ArrayList<String> keys = new ArrayList<>(2);
+			if (item != null) keys.add("item:" + item.getName().toUpperCase());
+			if (tile != null) keys.add("tile:" + tile.name);
+			return keys;
+		}
+
+		protected static void addTileKeys(Set<String> keys, @Nullable AdvancementTriggerConditionHandler.AdvancementCriterionConditions.LocationConditions conditions) {
+			if (conditions != null) for (String tile : conditions.tileKeys) keys.add("tile:" + tile);
 		}
 
 		/**
@@ -496,7 +582,8 @@ public class AdvancementElement {
 		 * Triggering and checking passes by another thread.
 		 */
 		public void trigger(AdvancementTriggerConditionHandler.AdvancementTriggerConditions conditions) {
-			if (!singleThreadNeeded()) executorService.submit(() -> trigger0(conditions));
+			events.incrementAndGet();
+			if (!singleThreadNeeded()) executorService.execute(() -> trigger0(conditions));
 			else trigger0(conditions);
 		}
 
@@ -557,11 +644,13 @@ public class AdvancementElement {
 
 				public static class ItemConditions {
 					private final HashSet<String> items = new HashSet<>();
+					private final HashSet<String> itemKeys = new HashSet<>(); // The same item names in upper case, for lookups
 					private final @Nullable Rangeable<Integer> count;
 					private final @Nullable Rangeable<Integer> durability;
 
 					private ItemConditions(Set<String> items, @Nullable Rangeable<Integer> count, @Nullable Rangeable<Integer> durability) {
 						this.items.addAll(items);
+						for (String item : items) itemKeys.add(item.toUpperCase());
 						this.count = count;
 						this.durability = durability;
 					}
@@ -618,6 +707,7 @@ public class AdvancementElement {
 				 */
 				public static class LocationConditions {
 					private final HashSet<String> tiles = new HashSet<>();
+					private final HashSet<String> tileKeys = new HashSet<>(); // The same tile names in upper case, for lookups
 					private final @Nullable Integer level;
 					private final @Nullable Integer data;
 					private final @Nullable Rangeable<Double> x;
@@ -626,6 +716,7 @@ public class AdvancementElement {
 					private LocationConditions(Set<String> tiles, @Nullable Integer level, @Nullable Integer data,
 					                           @Nullable Rangeable<Double> x, @Nullable Rangeable<Double> y) {
 						this.tiles.addAll(tiles);
+						for (String tile : tiles) tileKeys.add(tile.toUpperCase());
 						this.level = level;
 						this.data = data;
 						this.x = x;
@@ -734,12 +825,35 @@ public class AdvancementElement {
 				return false;
 			}
 
+			/**
+			 * A criterion needing items can only be met by an inventory holding at least one of them.
+			 */
+			@Override
+			protected Set<String> getKeys(AdvancementTriggerConditionHandler.AdvancementCriterionConditions conditions) {
+				HashSet<String> keys = new HashSet<>();
+				if (conditions instanceof InventoryChangedTriggerConditionHandler.InventoryChangedCriterionConditions) {
+					for (InventoryChangedTriggerConditionHandler.InventoryChangedCriterionConditions.ItemConditions itemConditions :
+						((InventoryChangedTriggerConditionHandler.InventoryChangedCriterionConditions) conditions).items)
+						addItemKeys(keys, itemConditions);
+				}
+
+				return keys;
+			}
+
 			@Override
 			protected void trigger0(AdvancementTriggerConditionHandler.AdvancementTriggerConditions conditions) {
 				if (conditions instanceof InventoryChangedTriggerConditionHandler.InventoryChangedTriggerConditions) {
 					ArrayList<Item> items = ((InventoryChangedTriggerConditionHandler.InventoryChangedTriggerConditions) conditions).items;
 					int maxSlots = ((InventoryChangedTriggerConditionHandler.InventoryChangedTriggerConditions) conditions).maxSlots;
-					for (ElementCriterion criterion : new HashSet<>(registeredCriteria)) {
+					HashMap<String, ArrayList<Item>> itemsByName = new HashMap<>();
+					for (Item item : items)
+						itemsByName.computeIfAbsent(item.getName().toUpperCase(), k -> new ArrayList<>()).add(item);
+
+					// Only the criteria naming an item in the inventory, or no item at all, can be met.
+					ArrayList<String> keys = new ArrayList<>();
+					for (String name : itemsByName.keySet()) keys.add("item:" + name);
+
+					for (ElementCriterion criterion : getCandidates(keys)) {
 						if (criterion.conditions instanceof InventoryChangedTriggerConditionHandler.InventoryChangedCriterionConditions) {
 							InventoryChangedTriggerConditionHandler.InventoryChangedCriterionConditions criterionConditions =
 								(InventoryChangedTriggerConditionHandler.InventoryChangedCriterionConditions) criterion.conditions;
@@ -753,7 +867,7 @@ public class AdvancementElement {
 							if (!AdvancementTriggerConditionHandler.AdvancementCriterionConditions.Rangeable.isAbsent(criterionConditions.slotsOccupied))
 								if (!criterionConditions.slotsOccupied.inRange(items.size()))
 									continue;
-							if (!criterionConditions.items.isEmpty() && !isConditionalMatched(items, criterionConditions.items)) {
+							if (!criterionConditions.items.isEmpty() && !isConditionalMatched(items, itemsByName, criterionConditions.items)) {
 								continue;
 							}
 							pendingCompletedCriteria.add(criterion); // All conditions passed.
@@ -763,63 +877,35 @@ public class AdvancementElement {
 			}
 
 			/**
-			 * Modified from {@link #test(List, List)}.
+			 * Checks that every item condition is met by an item of the inventory.
+			 * As before, one item may meet several conditions, so each condition is checked on its own,
+			 * against only the items with the names it allows.
 			 */
-			private static boolean isConditionalMatched(ArrayList<Item> items,
+			private static boolean isConditionalMatched(ArrayList<Item> items, HashMap<String, ArrayList<Item>> itemsByName,
 			                                            HashSet<InventoryChangedTriggerConditionHandler.InventoryChangedCriterionConditions.ItemConditions> itemConditions) {
-				Set<HashMap<InventoryChangedTriggerConditionHandler.InventoryChangedCriterionConditions.ItemConditions, String>> combinations = new HashSet<>();
-				List<List<String>> combinationsOutput = new ArrayList<>();
-				List<InventoryChangedTriggerConditionHandler.InventoryChangedCriterionConditions.ItemConditions> conditionsList = new ArrayList<>();
-				List<List<String>> itemStringCombinations = new ArrayList<>();
-				itemConditions.forEach(c -> {
-					if (!c.items.isEmpty()) {
-						conditionsList.add(c);
-						itemStringCombinations.add(new ArrayList<>(c.items));
-					}
-				});
-				if (!conditionsList.isEmpty()) getCombinations(combinationsOutput, itemStringCombinations);
-				for (List<String> c : combinationsOutput) {
-					HashMap<InventoryChangedTriggerConditionHandler.InventoryChangedCriterionConditions.ItemConditions, String> cOut = new HashMap<>();
-					for (int i = 0; i < conditionsList.size(); i++) {
-						cOut.put(conditionsList.get(i), c.get(i));
-					}
-					combinations.add(cOut);
+				for (InventoryChangedTriggerConditionHandler.InventoryChangedCriterionConditions.ItemConditions conditions : itemConditions) {
+					if (!isConditionMatched(items, itemsByName, conditions))
+						return false;
 				}
 
-				if (combinations.isEmpty()) {
-					return allMatch(items, new HashSet<>(itemConditions), new HashMap<>());
-				} else {
-					for (HashMap<InventoryChangedTriggerConditionHandler.InventoryChangedCriterionConditions.ItemConditions, String> c : combinations) {
-						if (allMatch(items, new HashSet<>(itemConditions), c))
-							return true;
-					}
-					return false;
-				}
+				return true;
 			}
 
-			/**
-			 * Used by {@link #allMatch(Collection, Collection, HashMap)} for conditional check for each element.
-			 */
-			private static boolean isMatched(Item item, InventoryChangedTriggerConditionHandler.InventoryChangedCriterionConditions.ItemConditions itemConditions,
-			                                 @Nullable String selectedItem) {
-				if (!itemConditions.matches(item))
+			private static boolean isConditionMatched(ArrayList<Item> items, HashMap<String, ArrayList<Item>> itemsByName,
+			                                          InventoryChangedTriggerConditionHandler.InventoryChangedCriterionConditions.ItemConditions itemConditions) {
+				if (itemConditions.itemKeys.isEmpty()) {
+					for (Item item : items)
+						if (itemConditions.matches(item)) return true;
 					return false;
-				return selectedItem == null || item.getName().equalsIgnoreCase(selectedItem);
-			}
+				}
 
-			/**
-			 * Modified from {@link #containsAll(List, List)}.
-			 */
-			private static boolean allMatch(Collection<Item> source, Collection<InventoryChangedTriggerConditionHandler.InventoryChangedCriterionConditions.ItemConditions> target,
-			                                HashMap<InventoryChangedTriggerConditionHandler.InventoryChangedCriterionConditions.ItemConditions, String> selectedItems) {
-				for (Item e : source) {
-					target.removeIf(conditions1 -> isMatched(e, conditions1, selectedItems.get(conditions1)));
-					if (target.isEmpty()) {
-						return true;
-					}
+				for (String name : itemConditions.itemKeys) {
+					ArrayList<Item> named = itemsByName.get(name);
+					if (named != null) for (Item item : named)
+						if (itemConditions.matches(item)) return true;
 				}
 
-				return target.size() == 0;
+				return false;
 			}
 
 			/**
@@ -957,6 +1043,23 @@ public class AdvancementElement {
 				super(new PlacedTileTriggerConditionHandler());
 			}
 
+			/**
+			 * The tiles the criterion needs, or else the items it needs to be placed with.
+			 */
+			@Override
+			protected Set<String> getKeys(AdvancementTriggerConditionHandler.AdvancementCriterionConditions conditions) {
+				HashSet<String> keys = new HashSet<>();
+				if (conditions instanceof PlacedTileTriggerConditionHandler.PlacedTileCriterionConditions) {
+					PlacedTileTriggerConditionHandler.PlacedTileCriterionConditions criterionConditions =
+						(PlacedTileTriggerConditionHandler.PlacedTileCriterionConditions) conditions;
+					if (criterionConditions.tile != null) keys.add("tile:" + criterionConditions.tile.toUpperCase());
+					else addTileKeys(keys, criterionConditions.location);
+					if (keys.isEmpty()) addItemKeys(keys, criterionConditions.item);
+				}
+
+				return keys;
+			}
+
 			@Override
 			protected void trigger0(AdvancementTriggerConditionHandler.AdvancementTriggerConditions conditions) {
 				if (conditions instanceof PlacedTileTriggerConditionHandler.PlacedTileTriggerConditions) {
@@ -966,7 +1069,7 @@ public class AdvancementElement {
 					int x = ((PlacedTileTriggerConditionHandler.PlacedTileTriggerConditions) conditions).x;
 					int y = ((PlacedTileTriggerConditionHandler.PlacedTileTriggerConditions) conditions).y;
 					int level = ((PlacedTileTriggerConditionHandler.PlacedTileTriggerConditions) conditions).level;
-					for (ElementCriterion criterion : new HashSet<>(registeredCriteria)) {
+					for (ElementCriterion criterion : getCandidates(getEventKeys(item, tile))) {
 						if (criterion.conditions instanceof PlacedTileTriggerConditionHandler.PlacedTileCriterionConditions) {
 							PlacedTileTriggerConditionHandler.PlacedTileCriterionConditions criterionConditions =
 								(PlacedTileTriggerConditionHandler.PlacedTileCriterionConditions) criterion.conditions;
@@ -1042,6 +1145,22 @@ public class AdvancementElement {
 				super(new ItemUsedOnTileTriggerConditionHandler());
 			}
 
+			/**
+			 * The tiles the criterion needs, or else the items it needs to be used.
+			 */
+			@Override
+			protected Set<String> getKeys(AdvancementTriggerConditionHandler.AdvancementCriterionConditions conditions) {
+				HashSet<String> keys = new HashSet<>();
+				if (conditions instanceof ItemUsedOnTileTriggerConditionHandler.ItemUsedOnTileCriterionConditions) {
+					ItemUsedOnTileTriggerConditionHandler.ItemUsedOnTileCriterionConditions criterionConditions =
+						(ItemUsedOnTileTriggerConditionHandler.ItemUsedOnTileCriterionConditions) conditions;
+					addTileKeys(keys, criterionConditions.location);
+					if (keys.isEmpty()) addItemKeys(keys, criterionConditions.item);
+				}
+
+				return keys;
+			}
+
 			@Override
 			protected void trigger0(AdvancementTriggerConditionHandler.AdvancementTriggerConditions conditions) {
 				if (conditions instanceof ItemUsedOnTileTriggerConditionHandler.ItemUsedOnTileTriggerConditions) {
@@ -1051,7 +1170,7 @@ public class AdvancementElement {
 					int x = ((ItemUsedOnTileTriggerConditionHandler.ItemUsedOnTileTriggerConditions) conditions).x;
 					int y = ((ItemUsedOnTileTriggerConditionHandler.ItemUsedOnTileTriggerConditions) conditions).y;
 					int level = ((ItemUsedOnTileTriggerConditionHandler.ItemUsedOnTileTriggerConditions) conditions).level;
-					for (ElementCriterion criterion : new HashSet<>(registeredCriteria)) {
+					for (ElementCriterion criterion : getCandidates(getEventKeys(item, tile))) {
 						if (criterion.conditions instanceof ItemUsedOnTileTriggerConditionHandler.ItemUsedOnTileCriterionConditions) {
 							ItemUsedOnTileTriggerConditionHandler.ItemUsedOnTileCriterionConditions criterionConditions =
 								(ItemUsedOnTileTriggerConditionHandler.ItemUsedOnTileCriterionConditions) criterion.conditions;
@@ -0,0 +1,91 @@
+package minicraft.level;
+
+import minicraft.core.Game;
+import minicraft.core.World;
+import minicraft.level.tile.Tiles;
+import minicraft.level.tile.TreeTile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class LevelGenTest {
+	private static final int SIZE = 128;
+	private static final long SEED = 0x100;
+	// What the generator from before levels were generated in parallel made of SEED, level by level from the sky down, in a fresh session with the default settings.
+	private static final long[] BASELINE = { 0xd6bbfe1e3cfc272fL, 0x40c42563f43d73bL, 0xd2a66ba09ab4bff1L, 0xcba414204f884129L, 0x69640ecb8cdec72fL, 0xc07addc4e261272fL };
+
+	private final int defaultThreads = LevelGen.worldThreads;
+
+	@BeforeAll
+	static void initTiles() {
+		Game.gameDir = ""; // AirWizard needs this in constructor
+		Tiles.initTileList();
+	}
+
+	@AfterEach
+	void resetThreads() {
+		LevelGen.worldThreads = defaultThreads;
+	}
+
+	/** Generates every level of a world the way World.initWorld does, and returns the content hash of each. */
+	private static long[] generate(long seed, int threads) {
+		LevelGen.worldThreads = threads;
+
+		Random random = new Random(seed);
+		int[] depths = new int[6];
+		long[] seeds = new long[depths.length];
+		for (int i = 0; i < depths.length; i++) {
+			depths[i] = 1 - i;
+			seeds[i] = random.nextLong();
+		}
+
+		ChunkManager[] maps = LevelGen.createAndValidateMaps(SIZE, SIZE, depths, seeds);
+		long[] hashes = new long[maps.length];
+		for (int i = 0; i < maps.length; i++)
+			hashes[i] = maps[i].contentHash();
+		return hashes;
+	}
+
+	@Test
+	void matchesBaselineGenerator() {
+		assertArrayEquals(BASELINE, generate(SEED, 4));
+	}
+
+	@Test
+	void sameSeedGivesSameWorld() {
+		assertArrayEquals(generate(SEED, 4), generate(SEED, 4));
+	}
+
+	@Test
+	void threadCountDoesNotChangeWorld() {
+		assertArrayEquals(generate(SEED, 1), generate(SEED, 4));
+	}
+
+	/** Trees worked out as their chunk is generated have to match the ones worked out again once the chunk was read back. */
+	@Test
+	void treeTypesSurviveReload() {
+		World.setWorldSeed(SEED);
+		Level level = new Level(SIZE, SIZE, new Random(SEED).nextLong(), 0, null, false);
+		ChunkManager map = level.chunkManager;
+		LevelGen.generateChunk(map, 0, 0, 0, level.getSeed());
+
+		int S = ChunkManager.CHUNK_SIZE;
+		TreeTile.TreeType[] generated = new TreeTile.TreeType[S * S];
+		for (int i = 0; i < generated.length; i++)
+			generated[i] = level.getTreeType(i % S, i / S);
+
+		// Putting tiles back into a chunk, as reading it from a save does, drops its tree types.
+		short[] ids = new short[S * S], data = new short[S * S];
+		map.copyChunk(0, 0, ids, data);
+		map.setChunkTiles(0, 0, ids, data);
+
+		TreeTile.TreeType[] reloaded = new TreeTile.TreeType[S * S];
+		for (int i = 0; i < reloaded.length; i++)
+			reloaded[i] = level.getTreeType(i % S, i / S);
+		assertArrayEquals(generated, reloaded);
+	}
+}